@@ -1,19 +1,29 @@
 package www.ontologyutils.apps;
 
+import java.io.File;
 import java.util.*;
 
+import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.profiles.Profiles;
 
 import www.ontologyutils.normalization.SroiqNormalization;
 import www.ontologyutils.toolbox.*;
 
 /**
- * Remove all annotations, annotation axioms, and imports of the ontology.
+ * Remove all annotations, annotation axioms, and imports of the ontology. In
+ * streaming mode, the axioms are modified in place in the parsed ontology and
+ * then normalized and written to the output in functional syntax in chunks,
+ * without keeping further copies of the ontology in memory. Both modes produce
+ * the same axioms, including the origin annotations of normalized axioms.
  */
 public class CleanupOntology extends App {
+    private static final int CHUNK_SIZE = 1 << 14;
+
     private String inputFile;
     private String outputFile = null;
     private boolean normalize = false;
+    private boolean streaming = false;
 
     @Override
     protected List<Option<?>> appOptions() {
@@ -33,18 +43,88 @@ public class CleanupOntology extends App {
         }, "the file to write the result to"));
         options.add(OptionType.FLAG.create('n', "normalize", b -> normalize = true,
                 "normalize the ontology beforehand"));
+        options.add(OptionType.FLAG.create('s', "streaming", b -> streaming = true,
+                "process the axioms in chunks and write functional syntax"));
         return options;
     }
 
+    private static boolean keepAxiom(OWLAxiom axiom) {
+        return !axiom.isAnnotationAxiom() && axiom.dataPropertiesInSignature().count() == 0
+                && axiom.datatypesInSignature().count() == 0;
+    }
+
+    private void runStreaming() {
+        var manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology;
+        try {
+            ontology = manager.loadOntologyFromOntologyDocument(new File(inputFile));
+        } catch (OWLOntologyCreationException e) {
+            throw Utils.panic(e);
+        }
+        System.err.println("Loaded... (" + ontology.getLogicalAxiomCount() + " axioms)");
+        // Cleaning is done in place, so that only a single chunk is copied at a time.
+        var axioms = Utils.toList(ontology.axioms());
+        for (int i = 0; i < axioms.size(); i += CHUNK_SIZE) {
+            var chunk = axioms.subList(i, Math.min(axioms.size(), i + CHUNK_SIZE));
+            var newAxioms = Utils.toList(chunk.parallelStream()
+                    .map(axiom -> axiom.<OWLAxiom>getAxiomWithoutAnnotations())
+                    .filter(axiom -> keepAxiom(axiom)));
+            ontology.removeAxioms(chunk);
+            ontology.addAxioms(newAxioms);
+        }
+        // Drop the references to the original axioms, so they can be collected.
+        axioms = null;
+        for (var profile : Profiles.values()) {
+            if (profile.getName().endsWith("DL")) {
+                var report = profile.checkOntology(ontology);
+                if (!report.isInProfile()) {
+                    for (var violation : report.getViolations()) {
+                        if (violation.getAxiom() != null) {
+                            ontology.removeAxiom(violation.getAxiom());
+                        }
+                    }
+                }
+            }
+        }
+        System.err.println("Cleaned. (" + ontology.getLogicalAxiomCount() + " axioms)");
+        var normalization = normalize ? new SroiqNormalization(true, false) : null;
+        if (outputFile == null) {
+            outputFile = inputFile;
+        }
+        var iri = ontology.getOntologyID().getOntologyIRI().orElse(null);
+        try (var writer = new FunctionalSyntaxWriter(outputFile, iri)) {
+            while (ontology.getAxiomCount() > 0) {
+                var chunk = Utils.toList(ontology.axioms().limit(CHUNK_SIZE));
+                ontology.removeAxioms(chunk);
+                // Declarations are generated by the writer only for entities that are still used.
+                chunk.removeIf(axiom -> axiom.isOfType(AxiomType.DECLARATION));
+                if (normalization != null) {
+                    // The same origin annotations are added as by SroiqNormalization.apply.
+                    writer.writeAxioms(Utils.toList(chunk.parallelStream()
+                            .flatMap(axiom -> normalization.asSroiqAxioms(axiom)
+                                    .map(normalized -> Ontology.getOriginAnnotatedAxiom(normalized, axiom)))));
+                } else {
+                    writer.writeAxioms(chunk);
+                }
+            }
+            writer.writeMissingDeclarations();
+            System.err.println("Saved. (" + writer.writtenAxioms() + " axioms, including declarations)");
+        }
+        manager.removeOntology(ontology);
+    }
+
     @Override
     public void run() {
+        if (streaming) {
+            runStreaming();
+            return;
+        }
         Ontology ontology = Ontology.loadOntology(inputFile);
         System.err.println("Loaded... (" + ontology.logicalAxioms().count() + " axioms)");
         Ontology newOntology = Ontology.emptyOntology();
         for (var axiom : Utils.toList(ontology.axioms())) {
             var newAxiom = axiom.<OWLAxiom>getAxiomWithoutAnnotations();
-            if (!newAxiom.isAnnotationAxiom() && newAxiom.dataPropertiesInSignature().count() == 0
-                    && newAxiom.datatypesInSignature().count() == 0) {
+            if (keepAxiom(newAxiom)) {
                 newOntology.addAxioms(newAxiom);
             }
         }
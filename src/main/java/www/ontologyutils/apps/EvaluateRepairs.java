@@ -70,9 +70,17 @@ public class EvaluateRepairs extends App {
             }
         }
         if (iicPairs) {
-            inferred.forEach((name1, inf1) -> {
-                inferred.forEach((name2, inf2) -> {
-                    System.out.println(name1 + ";" + inf1.size() + ";" + name2 + ";" + inf2.size() + ";"
+            // Number all inferred axioms, so that the comparisons work on sorted arrays.
+            var axiomIds = new HashMap<OWLAxiom, Long>();
+            var inferredIds = new HashMap<String, long[]>();
+            inferred.forEach((name, inf) -> {
+                inferredIds.put(name, inf.stream()
+                        .mapToLong(axiom -> axiomIds.computeIfAbsent(axiom, a -> (long) axiomIds.size()))
+                        .sorted().toArray());
+            });
+            inferredIds.forEach((name1, inf1) -> {
+                inferredIds.forEach((name2, inf2) -> {
+                    System.out.println(name1 + ";" + inf1.length + ";" + name2 + ";" + inf2.length + ";"
                             + Ontology.relativeInformationContent(inf1, inf2));
                 });
             });
@@ -26,6 +26,9 @@ public abstract class RepairApp extends App {
     private OWLReasonerFactory reasonerFactory = new FaCTPlusPlusReasonerFactory();
     private int limit = 0;
     private int verbose = 0;
+    private String checkpointFile = null;
+    private boolean resume = false;
+    private int checkpointInterval = 60;
 
     private long lastStart;
     private int lastCalls;
@@ -57,6 +60,21 @@ public abstract class RepairApp extends App {
         options.add(OptionType.INT.create("limit", i -> limit = i, "number of repairs to generate"));
         options.add(OptionType.INT.create("no-limit", i -> limit = Integer.MAX_VALUE,
                 "only stop once all repairs have been generated"));
+        options.add(OptionType.FILE.create("checkpoint", file -> {
+            if (checkpointFile != null) {
+                throw new IllegalArgumentException("multiple checkpoint files specified");
+            }
+            checkpointFile = file.toString();
+        }, "periodically save the state of the repair to the file"));
+        options.add(OptionType.FILE.create("resume", file -> {
+            if (checkpointFile != null) {
+                throw new IllegalArgumentException("multiple checkpoint files specified");
+            }
+            checkpointFile = file.toString();
+            resume = true;
+        }, "resume from the checkpoint in the file, if it exists, and save new checkpoints to it"));
+        options.add(OptionType.UINT.create("checkpoint-interval", i -> checkpointInterval = i,
+                "minimum number of seconds between two checkpoints"));
         options.add(OptionType.options(
                 Map.of("hermit", new ReasonerFactory(),
                         "jfact", new JFactFactory(),
@@ -117,20 +135,47 @@ public abstract class RepairApp extends App {
             if (verbose >= 1) {
                 repair.setInfoCallback(this::logMessage);
             }
+            RepairCheckpoint checkpoint = null;
+            if (checkpointFile != null) {
+                checkpoint = new RepairCheckpoint(checkpointFile, checkpointInterval * 1000L);
+                if (!resume) {
+                    checkpoint.delete();
+                }
+            }
             System.err.println("Repairing...");
             var i = new int[1];
             if (limit == 0) {
+                repair.setCheckpoint(checkpoint);
                 repair.apply(ontology);
                 saveResult(ontology, 0);
             } else {
-                try (var stream = repair.multiple(ontology)) {
-                    stream.limit(limit).forEach(onto -> {
-                        saveResult(onto, i[0]);
-                        onto.close();
-                        i[0]++;
-                    });
+                // For multiple repairs, only the number of saved results is checkpointed.
+                var resumed = checkpoint != null ? checkpoint.load() : null;
+                if (resumed != null) {
+                    i[0] = (int) resumed.completed();
+                    System.err.println("Resuming after " + i[0] + " saved results...");
+                }
+                // The checkpoint may have been written with a larger limit than the current one.
+                var remaining = Math.max(0, limit - i[0]);
+                if (remaining == 0) {
+                    System.err.println("All " + limit + " results have already been saved.");
+                } else {
+                    var finalCheckpoint = checkpoint;
+                    try (var stream = repair.multiple(ontology)) {
+                        stream.limit(remaining).forEach(onto -> {
+                            saveResult(onto, i[0]);
+                            onto.close();
+                            i[0]++;
+                            if (finalCheckpoint != null) {
+                                finalCheckpoint.save(new RepairCheckpoint.State(null, null, null, Double.NaN, i[0]));
+                            }
+                        });
+                    }
                 }
             }
+            if (checkpoint != null) {
+                checkpoint.delete();
+            }
             System.err.println("Repaired.");
         } else {
             saveResult(ontology, 0);
@@ -17,6 +17,7 @@ public class RepairWeakening extends RepairApp {
     private BadAxiomStrategy badAxiomStrategy = BadAxiomStrategy.IN_SOME_MUS;
     private int weakeningFlags = AxiomWeakener.FLAG_DEFAULT;
     private boolean enhanceRef = false;
+    private boolean uniqueRepairs = false;
 
     @Override
     protected List<Option<?>> appOptions() {
@@ -66,6 +67,12 @@ public class RepairWeakening extends RepairApp {
         options.add(OptionType.FLAG.create("basic-cache", b -> {
             weakeningFlags |= AxiomWeakener.FLAG_BASIC_CACHED;
         }, "use only a basic cache"));
+        options.add(OptionType.FLAG.create("classify", b -> {
+            weakeningFlags |= AxiomWeakener.FLAG_CLASSIFY_CONCEPTS;
+        }, "classify all subconcepts before computing covers"));
+        options.add(OptionType.FLAG.create("precompute-covers", b -> {
+            weakeningFlags |= AxiomWeakener.FLAG_PRECOMPUTE_COVERS;
+        }, "compute all covers in parallel before repairing"));
         options.add(OptionType.FLAG.create("strict-owl2", b -> {
             weakeningFlags |= AxiomWeakener.FLAG_OWL2_SET_OPERANDS;
         }, "do not produce intersection and union with a single operand"));
@@ -78,6 +85,9 @@ public class RepairWeakening extends RepairApp {
         options.add(OptionType.FLAG.create("enhance-ref", b -> {
             enhanceRef = true;
         }, "keep the reference ontology as static axioms in the output"));
+        options.add(OptionType.FLAG.create("unique", b -> {
+            uniqueRepairs = true;
+        }, "do not generate the same repair more than once"));
         options.add(OptionType.options(
                 Map.of("troquard2018", 2018,
                         "confalonieri2020", 2020,
@@ -109,8 +119,10 @@ public class RepairWeakening extends RepairApp {
 
     @Override
     protected OntologyRepair getRepair() {
-        return new OntologyRepairWeakening(coherence ? Ontology::isCoherent : Ontology::isConsistent,
+        var repair = new OntologyRepairWeakening(coherence ? Ontology::isCoherent : Ontology::isConsistent,
                 refOntologyStrategy, badAxiomStrategy, weakeningFlags, enhanceRef);
+        repair.setUniqueRepairs(uniqueRepairs);
+        return repair;
     }
 
     /**
@@ -1,7 +1,7 @@
 package www.ontologyutils.normalization;
 
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.stream.*;
 
 import org.semanticweb.owlapi.model.*;
 
@@ -112,9 +112,8 @@ public class ABoxNormalization implements OntologyModification {
 
     @Override
     public void apply(Ontology ontology) throws IllegalArgumentException {
-        var aBox = Utils.toList(ontology.aboxAxioms());
-        for (var axiom : aBox) {
-            ontology.replaceAxiom(axiom, asSroiqAxioms(axiom));
-        }
+        var aBox = Utils.toList(ontology.aboxAxioms().distinct());
+        ontology.replaceAxioms(aBox.parallelStream()
+                .collect(Collectors.toMap(axiom -> axiom, axiom -> Utils.toList(asSroiqAxioms(axiom)))));
     }
 }
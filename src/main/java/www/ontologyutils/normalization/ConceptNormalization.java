@@ -2,7 +2,7 @@ package www.ontologyutils.normalization;
 
 import java.util.List;
 import java.util.function.*;
-import java.util.stream.Stream;
+import java.util.stream.*;
 
 import org.semanticweb.owlapi.model.*;
 
@@ -29,48 +29,48 @@ public class ConceptNormalization implements OntologyModification {
         @Override
         public OWLAxiom visit(OWLSubClassOfAxiom axiom) {
             return df.getOWLSubClassOfAxiom(
-                    axiom.getSubClass().accept(visitor),
-                    axiom.getSuperClass().accept(visitor));
+                    visitor.normalize(axiom.getSubClass()),
+                    visitor.normalize(axiom.getSuperClass()));
         }
 
         @Override
         public OWLAxiom visit(OWLDisjointClassesAxiom axiom) {
             return df.getOWLDisjointClassesAxiom(
-                    axiom.classExpressions().map(concept -> concept.accept(visitor)));
+                    axiom.classExpressions().map(visitor::normalize));
         }
 
         @Override
         public OWLAxiom visit(OWLObjectPropertyDomainAxiom axiom) {
             return df.getOWLObjectPropertyDomainAxiom(
                     axiom.getProperty(),
-                    axiom.getDomain().accept(visitor));
+                    visitor.normalize(axiom.getDomain()));
         }
 
         @Override
         public OWLAxiom visit(OWLObjectPropertyRangeAxiom axiom) {
             return df.getOWLObjectPropertyRangeAxiom(
                     axiom.getProperty(),
-                    axiom.getRange().accept(visitor));
+                    visitor.normalize(axiom.getRange()));
         }
 
         @Override
         public OWLAxiom visit(OWLDisjointUnionAxiom axiom) {
             return df.getOWLDisjointUnionAxiom(
                     axiom.getOWLClass(),
-                    axiom.classExpressions().map(concept -> concept.accept(visitor)));
+                    axiom.classExpressions().map(visitor::normalize));
         }
 
         @Override
         public OWLAxiom visit(OWLClassAssertionAxiom axiom) {
             return df.getOWLClassAssertionAxiom(
-                    axiom.getClassExpression().accept(visitor),
+                    visitor.normalize(axiom.getClassExpression()),
                     axiom.getIndividual());
         }
 
         @Override
         public OWLAxiom visit(OWLEquivalentClassesAxiom axiom) {
             return df.getOWLDisjointClassesAxiom(
-                    axiom.classExpressions().map(concept -> concept.accept(visitor)));
+                    axiom.classExpressions().map(visitor::normalize));
         }
 
         @Override
@@ -80,15 +80,38 @@ public class ConceptNormalization implements OntologyModification {
     }
 
     /**
-     * Visitor class used for converting the concepts.
+     * Visitor class used for converting the concepts. The normal form of every
+     * distinct compound concept is computed only once and shared between all
+     * occurrences, also across threads. Concepts that are already normalized are
+     * returned unchanged, not as a new but equal object.
      */
     private static class ConceptVisitor implements OWLClassExpressionVisitorEx<OWLClassExpression> {
+        private static final int CACHE_SIZE = 1 << 16;
+
         protected OWLDataFactory df;
         private boolean binaryOperators;
+        private Function<OWLClassExpression, OWLClassExpression> cache;
 
         private ConceptVisitor(boolean binaryOperators) {
             df = Ontology.getDefaultDataFactory();
             this.binaryOperators = binaryOperators;
+            this.cache = SingleFlightCache.wrapFunction(ce -> {
+                var result = ce.accept(this);
+                return result.equals(ce) ? ce : result;
+            }, CACHE_SIZE);
+        }
+
+        /**
+         * @param ce
+         *            The concept to normalize.
+         * @return The normalized concept, possibly taken from the cache.
+         */
+        public OWLClassExpression normalize(OWLClassExpression ce) {
+            if (ce.isOWLClass() || ce instanceof OWLObjectHasSelf || ce instanceof OWLObjectOneOf) {
+                return ce;
+            } else {
+                return cache.apply(ce);
+            }
         }
 
         @Override
@@ -113,16 +136,16 @@ public class ConceptNormalization implements OntologyModification {
                 if (operands.size() == 0) {
                     return empty.get();
                 } else if (operands.size() == 1) {
-                    return operands.get(0).accept(this);
+                    return normalize(operands.get(0));
                 } else {
-                    var result = constructor.apply(operands.stream().limit(2).map(c -> c.accept(this)));
+                    var result = constructor.apply(operands.stream().limit(2).map(this::normalize));
                     for (int i = 2; i < operands.size(); i++) {
-                        result = constructor.apply(Stream.of(result, operands.get(i).accept(this)));
+                        result = constructor.apply(Stream.of(result, normalize(operands.get(i))));
                     }
                     return result;
                 }
             } else {
-                return constructor.apply(operands.stream().map(c -> c.accept(this)));
+                return constructor.apply(operands.stream().map(this::normalize));
             }
         }
 
@@ -140,17 +163,17 @@ public class ConceptNormalization implements OntologyModification {
 
         @Override
         public OWLClassExpression visit(OWLObjectComplementOf ce) {
-            return df.getOWLObjectComplementOf(ce.getOperand().accept(this));
+            return df.getOWLObjectComplementOf(normalize(ce.getOperand()));
         }
 
         @Override
         public OWLClassExpression visit(OWLObjectSomeValuesFrom ce) {
-            return df.getOWLObjectSomeValuesFrom(ce.getProperty(), ce.getFiller().accept(this));
+            return df.getOWLObjectSomeValuesFrom(ce.getProperty(), normalize(ce.getFiller()));
         }
 
         @Override
         public OWLClassExpression visit(OWLObjectAllValuesFrom ce) {
-            return df.getOWLObjectAllValuesFrom(ce.getProperty(), ce.getFiller().accept(this));
+            return df.getOWLObjectAllValuesFrom(ce.getProperty(), normalize(ce.getFiller()));
         }
 
         @Override
@@ -160,12 +183,12 @@ public class ConceptNormalization implements OntologyModification {
 
         @Override
         public OWLClassExpression visit(OWLObjectMinCardinality ce) {
-            return df.getOWLObjectMinCardinality(ce.getCardinality(), ce.getProperty(), ce.getFiller().accept(this));
+            return df.getOWLObjectMinCardinality(ce.getCardinality(), ce.getProperty(), normalize(ce.getFiller()));
         }
 
         @Override
         public OWLClassExpression visit(OWLObjectExactCardinality ce) {
-            var filler = ce.getFiller().accept(this);
+            var filler = normalize(ce.getFiller());
             return df.getOWLObjectIntersectionOf(
                     df.getOWLObjectMinCardinality(ce.getCardinality(), ce.getProperty(), filler),
                     df.getOWLObjectMaxCardinality(ce.getCardinality(), ce.getProperty(), filler));
@@ -173,7 +196,7 @@ public class ConceptNormalization implements OntologyModification {
 
         @Override
         public OWLClassExpression visit(OWLObjectMaxCardinality ce) {
-            return df.getOWLObjectMaxCardinality(ce.getCardinality(), ce.getProperty(), ce.getFiller().accept(this));
+            return df.getOWLObjectMaxCardinality(ce.getCardinality(), ce.getProperty(), normalize(ce.getFiller()));
         }
 
         @Override
@@ -214,14 +237,13 @@ public class ConceptNormalization implements OntologyModification {
      * @return A SROIQ concepts equivalent to {@code concept}.
      */
     public OWLClassExpression asSroiqConcept(OWLClassExpression concept) {
-        return concept.accept(visitor.visitor);
+        return visitor.visitor.normalize(concept);
     }
 
     @Override
     public void apply(Ontology ontology) throws IllegalArgumentException {
-        var axioms = Utils.toList(ontology.axioms());
-        for (var axiom : axioms) {
-            ontology.replaceAxiom(axiom, asSroiqAxiom(axiom));
-        }
+        var axioms = Utils.toList(ontology.axioms().distinct());
+        ontology.replaceAxioms(axioms.parallelStream()
+                .collect(Collectors.toMap(axiom -> axiom, axiom -> List.of(asSroiqAxiom(axiom)))));
     }
 }
@@ -1,5 +1,8 @@
 package www.ontologyutils.normalization;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import www.ontologyutils.toolbox.*;
 
 /**
@@ -8,9 +11,8 @@ import www.ontologyutils.toolbox.*;
 public class NnfNormalization implements OntologyModification {
     @Override
     public void apply(Ontology ontology) {
-        var axioms = Utils.toList(ontology.axioms());
-        for (var axiom : axioms) {
-            ontology.replaceAxiom(axiom, axiom.getNNF());
-        }
+        var axioms = Utils.toList(ontology.axioms().distinct());
+        ontology.replaceAxioms(axioms.parallelStream()
+                .collect(Collectors.toMap(axiom -> axiom, axiom -> List.of(axiom.getNNF()))));
     }
 }
@@ -1,7 +1,7 @@
 package www.ontologyutils.normalization;
 
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.stream.*;
 
 import org.semanticweb.owlapi.model.*;
 
@@ -165,9 +165,8 @@ public class RBoxNormalization implements OntologyModification {
 
     @Override
     public void apply(Ontology ontology) throws IllegalArgumentException {
-        var rBox = Utils.toList(ontology.rboxAxioms());
-        for (var axiom : rBox) {
-            ontology.replaceAxiom(axiom, asSroiqAxioms(axiom));
-        }
+        var rBox = Utils.toList(ontology.rboxAxioms().distinct());
+        ontology.replaceAxioms(rBox.parallelStream()
+                .collect(Collectors.toMap(axiom -> axiom, axiom -> Utils.toList(asSroiqAxioms(axiom)))));
     }
 }
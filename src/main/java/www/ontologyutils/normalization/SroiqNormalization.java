@@ -1,5 +1,9 @@
 package www.ontologyutils.normalization;
 
+import java.util.stream.*;
+
+import org.semanticweb.owlapi.model.*;
+
 import www.ontologyutils.toolbox.*;
 
 /**
@@ -34,11 +38,33 @@ public class SroiqNormalization implements OntologyModification {
         this(false, false);
     }
 
+    /**
+     * Normalize a single axiom. This applies, in order, the TBox, ABox, RBox, and
+     * concept normalization to {@code axiom} and the axioms resulting from it.
+     *
+     * @param axiom
+     *            The axiom that should be converted.
+     * @return A number of sroiq axioms that together are equivalent to
+     *         {@code axiom} in every ontology.
+     */
+    public Stream<OWLAxiom> asSroiqAxioms(OWLAxiom axiom) {
+        return Stream.of(axiom)
+                .flatMap(ax -> ax.isOfType(AxiomType.TBoxAxiomTypes) && !ax.isOfType(AxiomType.SUBCLASS_OF)
+                        ? tBoxNormalization.asSubclassOfAxioms(ax)
+                        : Stream.of(ax))
+                .flatMap(ax -> ax.isOfType(AxiomType.ABoxAxiomTypes) ? aBoxNormalization.asSroiqAxioms(ax)
+                        : Stream.of(ax))
+                .flatMap(ax -> ax.isOfType(AxiomType.RBoxAxiomTypes) ? rBoxNormalization.asSroiqAxioms(ax)
+                        : Stream.of(ax))
+                .map(ax -> conceptNormalization.asSroiqAxiom(ax));
+    }
+
     @Override
     public void apply(Ontology ontology) throws IllegalArgumentException {
-        tBoxNormalization.apply(ontology);
-        aBoxNormalization.apply(ontology);
-        rBoxNormalization.apply(ontology);
-        conceptNormalization.apply(ontology);
+        // All passes are fused, so that every axiom is replaced only once.
+        // An axiom can be both static and refutable, but must be replaced only once.
+        var axioms = Utils.toList(ontology.axioms().distinct());
+        ontology.replaceAxioms(axioms.parallelStream()
+                .collect(Collectors.toMap(axiom -> axiom, axiom -> Utils.toList(asSroiqAxioms(axiom)))));
     }
 }
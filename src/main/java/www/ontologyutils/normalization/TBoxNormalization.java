@@ -1,7 +1,7 @@
 package www.ontologyutils.normalization;
 
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.stream.*;
 
 import org.semanticweb.owlapi.model.*;
 
@@ -64,9 +64,9 @@ public class TBoxNormalization implements OntologyModification {
 
     @Override
     public void apply(Ontology ontology) throws IllegalArgumentException {
-        var tBox = Utils.toList(ontology.tboxAxioms().filter(axiom -> !axiom.isOfType(AxiomType.SUBCLASS_OF)));
-        for (var axiom : tBox) {
-            ontology.replaceAxiom(axiom, asSubclassOfAxioms(axiom));
-        }
+        var tBox = Utils.toList(ontology.tboxAxioms().filter(axiom -> !axiom.isOfType(AxiomType.SUBCLASS_OF))
+                .distinct());
+        ontology.replaceAxioms(tBox.parallelStream()
+                .collect(Collectors.toMap(axiom -> axiom, axiom -> Utils.toList(asSubclassOfAxioms(axiom)))));
     }
 }
@@ -1,6 +1,7 @@
 package www.ontologyutils.refinement;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.*;
 
 import org.semanticweb.owlapi.model.*;
@@ -66,6 +67,16 @@ public abstract class AxiomRefinement {
      * Use a cache for subsumptions but do not infer extra information.
      */
     public static final int FLAG_BASIC_CACHED = 1 << 8;
+    /**
+     * Classify all subconcepts ahead of time and read the concept covers from the
+     * resulting taxonomy, instead of computing each cover separately.
+     */
+    public static final int FLAG_CLASSIFY_CONCEPTS = 1 << 9;
+    /**
+     * Compute the covers of all subconcepts and subroles eagerly and in parallel
+     * when the covers are created.
+     */
+    public static final int FLAG_PRECOMPUTE_COVERS = 1 << 10;
 
     /**
      * Visitor implementing the actual weakening.
@@ -357,13 +368,29 @@ public abstract class AxiomRefinement {
     }
 
     private Visitor visitor;
+    private Function<OWLAxiom, OWLAxiom[]> cache;
 
     /**
      * @param visitor
      *            The visitor used by this operator.
+     * @param cacheBudget
+     *            The maximum total number of refined axioms kept in the cache.
      */
-    protected AxiomRefinement(Visitor visitor) {
+    protected AxiomRefinement(Visitor visitor, long cacheBudget) {
         this.visitor = visitor;
+        if ((visitor.flags & FLAG_UNCACHED) == 0) {
+            this.cache = WeightedCache.wrapWeightedFunction(
+                    axiom -> axiom.accept(visitor).distinct().toArray(OWLAxiom[]::new),
+                    cacheBudget, refined -> refined.length + 1);
+        }
+    }
+
+    /**
+     * @param visitor
+     *            The visitor used by this operator.
+     */
+    protected AxiomRefinement(Visitor visitor) {
+        this(visitor, RefinementOperator.DEFAULT_CACHE_BUDGET);
     }
 
     /**
@@ -375,6 +402,12 @@ public abstract class AxiomRefinement {
      * @return A stream of axioms that are all weaker/stronger than {@code axiom}.
      */
     public Stream<OWLAxiom> refineAxioms(OWLAxiom axiom) {
-        return axiom.accept(visitor).distinct();
+        if (cache != null) {
+            // The same axioms are refined repeatedly during repairs, possibly from
+            // different threads. The arrays are never modified after creation.
+            return Arrays.stream(cache.apply(axiom));
+        } else {
+            return axiom.accept(visitor).distinct();
+        }
     }
 }
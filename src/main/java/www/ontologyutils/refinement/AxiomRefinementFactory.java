@@ -0,0 +1,170 @@
+package www.ontologyutils.refinement;
+
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.*;
+
+import www.ontologyutils.refinement.Covers.Cover;
+import www.ontologyutils.toolbox.*;
+
+/**
+ * Builds the covers and refinement operators for one reference ontology, such
+ * that they can be shared by all {@code AxiomWeakener} and
+ * {@code AxiomStrengthener} objects created from it. The subconcepts, subroles,
+ * and simple roles of the full ontology are computed only once, and all
+ * refiners use the same {@code Covers} object. The subsumption information and
+ * the cached covers and refinements are therefore shared between them.
+ */
+public class AxiomRefinementFactory {
+    private Ontology fullOntology;
+    private Set<OWLObjectPropertyExpression> simpleRoles;
+    private Covers covers;
+    private RefinementOperator generalization;
+    private RefinementOperator specialization;
+    private long refinementBudget;
+    private int flags;
+
+    private static Cover cachedCover(Cover cover, long cacheBudget, int flags) {
+        if ((flags & AxiomRefinement.FLAG_UNCACHED) != 0) {
+            return cover;
+        } else if (cacheBudget == Long.MAX_VALUE) {
+            return cover.cached();
+        } else {
+            return cover.cached(cacheBudget);
+        }
+    }
+
+    /**
+     * @param refOntology
+     *            The reference ontology to use for the up and down covers.
+     * @param fullOntology
+     *            The maximal ontology in which the refined axioms will be used
+     *            in.
+     * @param sharedCaches
+     *            Subsumption caches shared with covers for other reference
+     *            ontologies. May be null.
+     * @param cacheBudget
+     *            The maximum number of elements kept in each of the cover,
+     *            concept refinement, and axiom refinement caches. Use
+     *            Long.MAX_VALUE to disable the limit for the cover caches and use
+     *            the default for the refinement caches.
+     * @param flags
+     *            The flags to use.
+     */
+    public AxiomRefinementFactory(Ontology refOntology, Ontology fullOntology, Covers.SharedCaches sharedCaches,
+            long cacheBudget, int flags) {
+        this.fullOntology = fullOntology;
+        this.flags = flags;
+        this.simpleRoles = Utils.toSet(fullOntology.simpleRoles());
+        Set<OWLObjectPropertyExpression> subRoles;
+        if ((flags & AxiomRefinement.FLAG_NO_ROLE_REFINEMENT) != 0) {
+            subRoles = Set.of();
+        } else if ((flags & AxiomRefinement.FLAG_SIMPLE_ROLES_STRICT) != 0) {
+            subRoles = simpleRoles;
+        } else {
+            subRoles = Utils.toSet(fullOntology.subRoles());
+        }
+        this.covers = new Covers(refOntology, Utils.toSet(fullOntology.subConcepts()), subRoles, simpleRoles, flags,
+                sharedCaches);
+        var upCover = cachedCover(covers.upCover(), cacheBudget, flags);
+        var downCover = cachedCover(covers.downCover(), cacheBudget, flags);
+        this.refinementBudget = cacheBudget == Long.MAX_VALUE ? RefinementOperator.DEFAULT_CACHE_BUDGET : cacheBudget;
+        this.generalization = new RefinementOperator(upCover, downCover, flags, refinementBudget);
+        this.specialization = new RefinementOperator(downCover, upCover, flags, refinementBudget);
+    }
+
+    /**
+     * @param refOntology
+     *            The reference ontology to use for the up and down covers.
+     * @param fullOntology
+     *            The maximal ontology in which the refined axioms will be used
+     *            in.
+     * @param flags
+     *            The flags to use.
+     */
+    public AxiomRefinementFactory(Ontology refOntology, Ontology fullOntology, int flags) {
+        this(refOntology, fullOntology, null, Long.MAX_VALUE, flags);
+    }
+
+    /**
+     * @param refOntology
+     *            The reference ontology to use for the up and down covers.
+     * @param flags
+     *            The flags to use.
+     */
+    public AxiomRefinementFactory(Ontology refOntology, int flags) {
+        this(refOntology, refOntology, flags);
+    }
+
+    /**
+     * @return The covers shared by all refiners of this factory.
+     */
+    public Covers covers() {
+        return covers;
+    }
+
+    /**
+     * @return The refinement operator using the upward cover.
+     */
+    public RefinementOperator generalization() {
+        return generalization;
+    }
+
+    /**
+     * @return The refinement operator using the downward cover.
+     */
+    public RefinementOperator specialization() {
+        return specialization;
+    }
+
+    /**
+     * @return The simple roles of the full ontology.
+     */
+    public Set<OWLObjectPropertyExpression> simpleRoles() {
+        return simpleRoles;
+    }
+
+    /**
+     * The regularity preorder is extended while refining role inclusion axioms.
+     * Every refiner must therefore use its own preorder, and a new one is
+     * computed on every call.
+     *
+     * @return A new preorder for the regularity check of the full ontology, or
+     *         null if role inclusion axioms should not be checked against it.
+     */
+    public PreorderCache<OWLObjectProperty> regularPreorder() {
+        if ((flags & (AxiomRefinement.FLAG_RIA_ONLY_SIMPLE | AxiomRefinement.FLAG_SIMPLE_ROLES_STRICT)) != 0) {
+            return null;
+        } else {
+            return fullOntology.regularPreorder();
+        }
+    }
+
+    /**
+     * @return The maximum number of elements kept in the refinement caches.
+     */
+    public long refinementBudget() {
+        return refinementBudget;
+    }
+
+    /**
+     * @return The flags used by this factory.
+     */
+    public int flags() {
+        return flags;
+    }
+
+    /**
+     * @return A new axiom weakener using the shared covers.
+     */
+    public AxiomWeakener weakener() {
+        return new AxiomWeakener(this);
+    }
+
+    /**
+     * @return A new axiom strengthener using the shared covers.
+     */
+    public AxiomStrengthener strengthener() {
+        return new AxiomStrengthener(this);
+    }
+}
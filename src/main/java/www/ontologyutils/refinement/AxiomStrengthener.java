@@ -5,7 +5,6 @@ import java.util.stream.*;
 
 import org.semanticweb.owlapi.model.*;
 
-import www.ontologyutils.refinement.Covers.Cover;
 import www.ontologyutils.toolbox.*;
 
 /**
@@ -36,26 +35,15 @@ public class AxiomStrengthener extends AxiomRefinement {
         }
     }
 
-    private AxiomStrengthener(Cover upCover, Cover downCover, Set<OWLObjectPropertyExpression> simpleRoles,
-            PreorderCache<OWLObjectProperty> regularPreorder, int flags) {
-        super(new Visitor(new RefinementOperator(downCover, upCover, flags),
-                new RefinementOperator(upCover, downCover, flags), simpleRoles, regularPreorder, flags));
-    }
-
-    private AxiomStrengthener(Covers covers, Set<OWLObjectPropertyExpression> simpleRoles,
-            PreorderCache<OWLObjectProperty> regularPreorder, int flags) {
-        this((flags & FLAG_UNCACHED) != 0 ? covers.upCover() : covers.upCover().cached(),
-                (flags & FLAG_UNCACHED) != 0 ? covers.downCover() : covers.downCover().cached(), simpleRoles,
-                regularPreorder, flags);
-    }
-
-    private AxiomStrengthener(Ontology refOntology, Set<OWLClassExpression> subConcepts,
-            Set<OWLObjectPropertyExpression> subRoles, Set<OWLObjectPropertyExpression> simpleRoles,
-            PreorderCache<OWLObjectProperty> regularPreorder, int flags) {
-        this(new Covers(refOntology, subConcepts,
-                (flags & FLAG_NO_ROLE_REFINEMENT) != 0 ? Set.of()
-                        : (flags & FLAG_SIMPLE_ROLES_STRICT) != 0 ? simpleRoles : subRoles,
-                simpleRoles, flags), simpleRoles, regularPreorder, flags);
+    /**
+     * Create a new axiom strengthener using the covers of {@code factory}.
+     *
+     * @param factory
+     *            The factory providing the covers and refinement operators.
+     */
+    public AxiomStrengthener(AxiomRefinementFactory factory) {
+        super(new Visitor(factory.specialization(), factory.generalization(), factory.simpleRoles(),
+                factory.regularPreorder(), factory.flags()), factory.refinementBudget());
     }
 
     /**
@@ -68,11 +56,7 @@ public class AxiomStrengthener extends AxiomRefinement {
      *            The flags to use.
      */
     public AxiomStrengthener(Ontology refOntology, Ontology fullOntology, int flags) {
-        this(refOntology, Utils.toSet(fullOntology.subConcepts()),
-                Utils.toSet(fullOntology.subRoles()), Utils.toSet(fullOntology.simpleRoles()),
-                (flags & (FLAG_RIA_ONLY_SIMPLE | FLAG_SIMPLE_ROLES_STRICT)) != 0 ? null
-                        : fullOntology.regularPreorder(),
-                flags);
+        this(new AxiomRefinementFactory(refOntology, fullOntology, flags));
     }
 
     /**
@@ -5,7 +5,6 @@ import java.util.stream.*;
 
 import org.semanticweb.owlapi.model.*;
 
-import www.ontologyutils.refinement.Covers.Cover;
 import www.ontologyutils.toolbox.*;
 
 /**
@@ -99,26 +98,53 @@ public class AxiomWeakener extends AxiomRefinement {
         }
     }
 
-    private AxiomWeakener(Cover upCover, Cover downCover, Set<OWLObjectPropertyExpression> simpleRoles,
-            PreorderCache<OWLObjectProperty> regularPreorder, int flags) {
-        super(new Visitor(new RefinementOperator(upCover, downCover, flags),
-                new RefinementOperator(downCover, upCover, flags), simpleRoles, regularPreorder, flags));
+    /**
+     * Create a new axiom weakener using the covers of {@code factory}.
+     *
+     * @param factory
+     *            The factory providing the covers and refinement operators.
+     */
+    public AxiomWeakener(AxiomRefinementFactory factory) {
+        super(new Visitor(factory.generalization(), factory.specialization(), factory.simpleRoles(),
+                factory.regularPreorder(), factory.flags()), factory.refinementBudget());
     }
 
-    private AxiomWeakener(Covers covers, Set<OWLObjectPropertyExpression> simpleRoles,
-            PreorderCache<OWLObjectProperty> regularPreorder, int flags) {
-        this((flags & FLAG_UNCACHED) != 0 ? covers.upCover() : covers.upCover().cached(),
-                (flags & FLAG_UNCACHED) != 0 ? covers.downCover() : covers.downCover().cached(), simpleRoles,
-                regularPreorder, flags);
+    /**
+     * @param refOntology
+     *            The reference ontology to use for the up and down covers.
+     * @param fullOntology
+     *            The maximal ontology in which the weaker axioms will be
+     *            used in.
+     * @param sharedCaches
+     *            Subsumption caches shared with weakeners for other reference
+     *            ontologies. May be null.
+     * @param cacheBudget
+     *            The maximum number of elements kept in each of the cover,
+     *            concept refinement, and axiom refinement caches. Use
+     *            Long.MAX_VALUE to disable the limit for the cover caches and use
+     *            the default for the refinement caches.
+     * @param flags
+     *            The flags to use.
+     */
+    public AxiomWeakener(Ontology refOntology, Ontology fullOntology, Covers.SharedCaches sharedCaches,
+            long cacheBudget, int flags) {
+        this(new AxiomRefinementFactory(refOntology, fullOntology, sharedCaches, cacheBudget, flags));
     }
 
-    private AxiomWeakener(Ontology refOntology, Set<OWLClassExpression> subConcepts,
-            Set<OWLObjectPropertyExpression> subRoles, Set<OWLObjectPropertyExpression> simpleRoles,
-            PreorderCache<OWLObjectProperty> regularPreorder, int flags) {
-        this(new Covers(refOntology, subConcepts,
-                (flags & FLAG_NO_ROLE_REFINEMENT) != 0 ? Set.of()
-                        : (flags & FLAG_SIMPLE_ROLES_STRICT) != 0 ? simpleRoles : subRoles,
-                simpleRoles, flags), simpleRoles, regularPreorder, flags);
+    /**
+     * @param refOntology
+     *            The reference ontology to use for the up and down covers.
+     * @param fullOntology
+     *            The maximal ontology in which the weaker axioms will be
+     *            used in.
+     * @param sharedCaches
+     *            Subsumption caches shared with weakeners for other reference
+     *            ontologies. May be null.
+     * @param flags
+     *            The flags to use.
+     */
+    public AxiomWeakener(Ontology refOntology, Ontology fullOntology, Covers.SharedCaches sharedCaches, int flags) {
+        this(refOntology, fullOntology, sharedCaches, Long.MAX_VALUE, flags);
     }
 
     /**
@@ -131,11 +157,7 @@ public class AxiomWeakener extends AxiomRefinement {
      *            The flags to use.
      */
     public AxiomWeakener(Ontology refOntology, Ontology fullOntology, int flags) {
-        this(refOntology, Utils.toSet(fullOntology.subConcepts()),
-                Utils.toSet(fullOntology.subRoles()), Utils.toSet(fullOntology.simpleRoles()),
-                (flags & (FLAG_RIA_ONLY_SIMPLE | FLAG_SIMPLE_ROLES_STRICT)) != 0 ? null
-                        : fullOntology.regularPreorder(),
-                flags);
+        this(refOntology, fullOntology, null, flags);
     }
 
     /**
@@ -1,6 +1,7 @@
 package www.ontologyutils.refinement;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
 import java.util.stream.*;
 
@@ -30,6 +31,16 @@ public class Covers {
      * Use a cache for subsumptions but do not infer extra information.
      */
     public static final int FLAG_BASIC_CACHED = AxiomWeakener.FLAG_BASIC_CACHED;
+    /**
+     * Classify all subconcepts ahead of time and read the concept covers from the
+     * resulting taxonomy.
+     */
+    public static final int FLAG_CLASSIFY_CONCEPTS = AxiomWeakener.FLAG_CLASSIFY_CONCEPTS;
+    /**
+     * Compute all covers of the subconcepts and subroles in parallel on
+     * construction.
+     */
+    public static final int FLAG_PRECOMPUTE_COVERS = AxiomWeakener.FLAG_PRECOMPUTE_COVERS;
 
     /**
      * Class representing a single cover direction. Contains functions for concepts,
@@ -66,10 +77,24 @@ public class Covers {
          */
         public Cover cached() {
             return new Cover(
-                    LruCache.wrapStreamFunction(conceptCover),
-                    LruCache.wrapStreamFunction(roleCover),
-                    LruCache.wrapStreamFunction(nonSimpleRoleCover),
-                    LruCache.wrapStreamFunction(intCover));
+                    SingleFlightCache.wrapStreamFunction(conceptCover),
+                    SingleFlightCache.wrapStreamFunction(roleCover),
+                    SingleFlightCache.wrapStreamFunction(nonSimpleRoleCover),
+                    SingleFlightCache.wrapStreamFunction(intCover));
+        }
+
+        /**
+         * @param maxWeight
+         *            The maximum total number of elements kept in the cache of each
+         *            of the cover functions.
+         * @return A cached version of this cover, using a bounded amount of memory.
+         */
+        public Cover cached(long maxWeight) {
+            return new Cover(
+                    WeightedCache.wrapWeightedStreamFunction(conceptCover, maxWeight),
+                    WeightedCache.wrapWeightedStreamFunction(roleCover, maxWeight),
+                    WeightedCache.wrapWeightedStreamFunction(nonSimpleRoleCover, maxWeight),
+                    WeightedCache.wrapWeightedStreamFunction(intCover, maxWeight));
         }
 
         /**
@@ -104,6 +129,60 @@ public class Covers {
         }
     }
 
+    /**
+     * Subsumption information that can be shared between {@code Covers} objects
+     * with different reference ontologies. Since subsumption is monotone, the
+     * results computed for one reference ontology can be reused for reference
+     * ontologies that are subsets or supersets of it.
+     */
+    public static class SharedCaches {
+        private MonotonePreorderCache<OWLAxiom, OWLClassExpression> isSubClass;
+        private MonotonePreorderCache<OWLAxiom, OWLObjectPropertyExpression> isSubRole;
+
+        /**
+         * Create a new empty set of shared caches.
+         */
+        public SharedCaches() {
+            isSubClass = new MonotonePreorderCache<>();
+            isSubRole = new MonotonePreorderCache<>();
+        }
+
+        /**
+         * Remove all the cached information.
+         */
+        public void clear() {
+            isSubClass.clear();
+            isSubRole.clear();
+        }
+    }
+
+    /**
+     * The covers of all elements of the domain, computed ahead of time. The maps
+     * are not modified after construction.
+     */
+    private static class CoverTable {
+        public final Map<OWLClassExpression, List<OWLClassExpression>> conceptUp;
+        public final Map<OWLClassExpression, List<OWLClassExpression>> conceptDown;
+        public final Map<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>> roleUp;
+        public final Map<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>> roleDown;
+        public final Map<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>> simpleRoleUp;
+        public final Map<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>> simpleRoleDown;
+
+        public CoverTable(Map<OWLClassExpression, List<OWLClassExpression>> conceptUp,
+                Map<OWLClassExpression, List<OWLClassExpression>> conceptDown,
+                Map<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>> roleUp,
+                Map<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>> roleDown,
+                Map<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>> simpleRoleUp,
+                Map<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>> simpleRoleDown) {
+            this.conceptUp = Map.copyOf(conceptUp);
+            this.conceptDown = Map.copyOf(conceptDown);
+            this.roleUp = Map.copyOf(roleUp);
+            this.roleDown = Map.copyOf(roleDown);
+            this.simpleRoleUp = Map.copyOf(simpleRoleUp);
+            this.simpleRoleDown = Map.copyOf(simpleRoleDown);
+        }
+    }
+
     private OWLDataFactory df;
     private Ontology refOntology;
     private Set<OWLClassExpression> subConcepts;
@@ -113,6 +192,9 @@ public class Covers {
     private BiPredicate<OWLObjectPropertyExpression, OWLObjectPropertyExpression> basicIsSubRole;
     private PreorderCache<OWLClassExpression> isSubClass;
     private PreorderCache<OWLObjectPropertyExpression> isSubRole;
+    private boolean classifyConcepts;
+    private Taxonomy<OWLClassExpression> conceptTaxonomy;
+    private volatile CoverTable coverTable;
 
     /**
      * Creates a new {@code Cover} object for the given reference object.
@@ -128,9 +210,11 @@ public class Covers {
      *            covers.
      * @param flags
      *            Flags configuring behavior.
+     * @param sharedCaches
+     *            Caches shared with other {@code Covers} objects. May be null.
      */
     public Covers(Ontology refOntology, Set<OWLClassExpression> subConcepts, Set<OWLObjectPropertyExpression> subRoles,
-            Set<OWLObjectPropertyExpression> simpleRoles, int flags) {
+            Set<OWLObjectPropertyExpression> simpleRoles, int flags, SharedCaches sharedCaches) {
         df = Ontology.getDefaultDataFactory();
         this.refOntology = refOntology;
         this.subConcepts = subConcepts;
@@ -138,15 +222,55 @@ public class Covers {
         this.simpleRoles = simpleRoles;
         this.basicIsSubClass = this::uncachedIsSubClass;
         this.basicIsSubRole = this::uncachedIsSubRole;
+        this.classifyConcepts = (flags & FLAG_CLASSIFY_CONCEPTS) != 0 && (flags & FLAG_UNCACHED) == 0;
+        Set<OWLAxiom> refAxioms = null;
+        if (sharedCaches != null && (flags & FLAG_UNCACHED) == 0) {
+            refAxioms = Utils.toSet(refOntology.axioms());
+            this.basicIsSubClass = sharedCaches.isSubClass.wrapPreorder(refAxioms, basicIsSubClass);
+            this.basicIsSubRole = sharedCaches.isSubRole.wrapPreorder(refAxioms, basicIsSubRole);
+        }
         if ((flags & FLAG_BASIC_CACHED) != 0) {
-            this.basicIsSubClass = LruCache.wrapFunction(basicIsSubClass);
-            this.basicIsSubRole = LruCache.wrapFunction(basicIsSubRole);
+            this.basicIsSubClass = SingleFlightCache.wrapFunction(basicIsSubClass);
+            this.basicIsSubRole = SingleFlightCache.wrapFunction(basicIsSubRole);
         } else if ((flags & FLAG_UNCACHED) == 0) {
-            this.isSubClass = new SubClassCache(subConcepts);
-            this.isSubRole = new SubRoleCache(subRoles);
+            if (refAxioms != null) {
+                this.isSubRole = sharedCaches.isSubRole.getCache(refAxioms,
+                        () -> new SubRoleCache(subRoles, refOntology.rboxAxioms()));
+                var roleCache = this.isSubRole;
+                this.isSubClass = sharedCaches.isSubClass.getCache(refAxioms,
+                        () -> new SubClassCache(subConcepts, roleCache));
+                this.isSubClass.setupDomain(subConcepts);
+                this.isSubRole.setupDomain(subRoles);
+            } else {
+                this.isSubRole = new SubRoleCache(subRoles, refOntology.rboxAxioms());
+                this.isSubClass = new SubClassCache(subConcepts, isSubRole);
+            }
+        }
+        if ((flags & FLAG_PRECOMPUTE_COVERS) != 0) {
+            precomputeCovers(Runtime.getRuntime().availableProcessors(), null);
         }
     }
 
+    /**
+     * Creates a new {@code Cover} object for the given reference object.
+     *
+     * @param refOntology
+     *            The ontology used for entailment check.
+     * @param subConcepts
+     *            Return only concepts that are in this set.
+     * @param subRoles
+     *            Return only roles that are in this set.
+     * @param simpleRoles
+     *            Return only roles that are in this set if asked for simple roles
+     *            covers.
+     * @param flags
+     *            Flags configuring behavior.
+     */
+    public Covers(Ontology refOntology, Set<OWLClassExpression> subConcepts, Set<OWLObjectPropertyExpression> subRoles,
+            Set<OWLObjectPropertyExpression> simpleRoles, int flags) {
+        this(refOntology, subConcepts, subRoles, simpleRoles, flags, null);
+    }
+
     /**
      * @param subClass
      *            The possible sub concept.
@@ -243,12 +367,107 @@ public class Covers {
         }
     }
 
+    /**
+     * Classify all concepts in the set of subconcepts. After this, the covers of
+     * these concepts can be read directly from the taxonomy. This is done
+     * automatically on the first cover request if {@code FLAG_CLASSIFY_CONCEPTS}
+     * is set.
+     *
+     * @return The taxonomy of all subconcepts.
+     */
+    public synchronized Taxonomy<OWLClassExpression> classifyConcepts() {
+        if (conceptTaxonomy == null) {
+            conceptTaxonomy = new Taxonomy<>(subConcepts, this::isSubClass);
+        }
+        return conceptTaxonomy;
+    }
+
+    /**
+     * Compute the upward and downward covers of all subconcepts, subroles, and
+     * simple roles in parallel. Afterwards, covers for these elements are answered
+     * from an immutable table without any further entailment checks. The
+     * subsumption caches are thread-safe and every thread performing entailment
+     * checks is given its own reasoner by the reference ontology.
+     *
+     * @param parallelism
+     *            The number of threads to use.
+     * @param progress
+     *            Called with the number of completed and the total number of
+     *            elements after every element. May be null.
+     */
+    public void precomputeCovers(int parallelism, BiConsumer<Integer, Integer> progress) {
+        var conceptUp = new ConcurrentHashMap<OWLClassExpression, List<OWLClassExpression>>();
+        var conceptDown = new ConcurrentHashMap<OWLClassExpression, List<OWLClassExpression>>();
+        var roleUp = new ConcurrentHashMap<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>>();
+        var roleDown = new ConcurrentHashMap<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>>();
+        var simpleRoleUp = new ConcurrentHashMap<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>>();
+        var simpleRoleDown = new ConcurrentHashMap<OWLObjectPropertyExpression, List<OWLObjectPropertyExpression>>();
+        var tasks = new ArrayList<Runnable>();
+        for (var concept : subConcepts) {
+            tasks.add(() -> {
+                conceptUp.put(concept, Utils.toList(upCover(concept)));
+                conceptDown.put(concept, Utils.toList(downCover(concept)));
+            });
+        }
+        for (var role : subRoles) {
+            tasks.add(() -> {
+                roleUp.put(role, Utils.toList(upCover(role, false)));
+                roleDown.put(role, Utils.toList(downCover(role, false)));
+            });
+        }
+        for (var role : simpleRoles) {
+            tasks.add(() -> {
+                simpleRoleUp.put(role, Utils.toList(upCover(role, true)));
+                simpleRoleDown.put(role, Utils.toList(downCover(role, true)));
+            });
+        }
+        if (classifyConcepts) {
+            // The classification itself is sequential, do it before starting the threads.
+            classifyConcepts();
+        }
+        var total = tasks.size();
+        var done = new Object() {
+            int count = 0;
+        };
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> tasks.parallelStream().forEach(task -> {
+                task.run();
+                if (progress != null) {
+                    synchronized (done) {
+                        done.count += 1;
+                        progress.accept(done.count, total);
+                    }
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            throw new CanceledException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            } else {
+                throw Utils.panic(e);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        coverTable = new CoverTable(conceptUp, conceptDown, roleUp, roleDown, simpleRoleUp, simpleRoleDown);
+    }
+
     /**
      * @param concept
      *            The concept for which to compute the upward cover.
      * @return All concepts that are in the upward cover of {@code concept}.
      */
     public Stream<OWLClassExpression> upCover(OWLClassExpression concept) {
+        var table = coverTable;
+        if (table != null && table.conceptUp.containsKey(concept)) {
+            return table.conceptUp.get(concept).stream();
+        } else if (classifyConcepts && classifyConcepts().contains(concept)) {
+            return Stream.concat(conceptTaxonomy.equivalents(concept), conceptTaxonomy.directPredecessors(concept));
+        }
         return subConcepts.stream()
                 .filter(candidate -> isInUpCover(concept, candidate));
     }
@@ -284,6 +503,12 @@ public class Covers {
      * @return All concepts that are in the downward cover of {@code concept}.
      */
     public Stream<OWLClassExpression> downCover(OWLClassExpression concept) {
+        var table = coverTable;
+        if (table != null && table.conceptDown.containsKey(concept)) {
+            return table.conceptDown.get(concept).stream();
+        } else if (classifyConcepts && classifyConcepts().contains(concept)) {
+            return Stream.concat(conceptTaxonomy.equivalents(concept), conceptTaxonomy.directSuccessors(concept));
+        }
         return subConcepts.stream()
                 .filter(candidate -> isInDownCover(concept, candidate));
     }
@@ -338,6 +563,13 @@ public class Covers {
      * @return All role that are in the upward cover of {@code role}.
      */
     public Stream<OWLObjectPropertyExpression> upCover(OWLObjectPropertyExpression role, boolean simple) {
+        var table = coverTable;
+        if (table != null) {
+            var covers = simple ? table.simpleRoleUp : table.roleUp;
+            if (covers.containsKey(role)) {
+                return covers.get(role).stream();
+            }
+        }
         var allowedRoles = simple ? simpleRoles : subRoles;
         return allowedRoles.stream().filter(candidate -> isInUpCover(role, candidate, allowedRoles));
     }
@@ -378,6 +610,13 @@ public class Covers {
      * @return All roles that are in the downward cover of {@code role}.
      */
     public Stream<OWLObjectPropertyExpression> downCover(OWLObjectPropertyExpression role, boolean simple) {
+        var table = coverTable;
+        if (table != null) {
+            var covers = simple ? table.simpleRoleDown : table.roleDown;
+            if (covers.containsKey(role)) {
+                return covers.get(role).stream();
+            }
+        }
         var allowedRoles = simple ? simpleRoles : subRoles;
         return allowedRoles.stream().filter(candidate -> isInDownCover(role, candidate, allowedRoles));
     }
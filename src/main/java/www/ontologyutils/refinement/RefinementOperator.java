@@ -1,13 +1,13 @@
 package www.ontologyutils.refinement;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.*;
 
 import org.semanticweb.owlapi.model.*;
 
 import www.ontologyutils.refinement.Covers.Cover;
-import www.ontologyutils.toolbox.Ontology;
-import www.ontologyutils.toolbox.Utils;
+import www.ontologyutils.toolbox.*;
 
 /**
  * Implements a abstract refinement operator that given the upward and downward
@@ -42,6 +42,15 @@ public class RefinementOperator {
      * (Only during generation, invalid axioms will be accepted.)
      */
     public static final int FLAG_OWL2_SET_OPERANDS = AxiomRefinement.FLAG_OWL2_SET_OPERANDS;
+    /**
+     * Do not memoize the refinements of concepts.
+     */
+    public static final int FLAG_UNCACHED = AxiomRefinement.FLAG_UNCACHED;
+    /**
+     * The maximum number of concepts kept in the refinement cache of each
+     * direction, if not specified otherwise.
+     */
+    public static final long DEFAULT_CACHE_BUDGET = 1 << 20;
 
     private static class Visitor implements OWLClassExpressionVisitorEx<Stream<OWLClassExpression>> {
         protected OWLDataFactory df;
@@ -49,12 +58,18 @@ public class RefinementOperator {
         private Cover back;
         private int flags;
         private Visitor reverse;
+        private Function<OWLClassExpression, OWLClassExpression[]> cache;
 
-        public Visitor(Cover way, Cover back, int flags) {
+        public Visitor(Cover way, Cover back, int flags, long cacheBudget) {
             df = Ontology.getDefaultDataFactory();
             this.way = way;
             this.back = back;
             this.flags = flags;
+            if ((flags & FLAG_UNCACHED) == 0) {
+                this.cache = WeightedCache.wrapWeightedFunction(
+                        concept -> uncachedRefine(concept).toArray(OWLClassExpression[]::new),
+                        cacheBudget, refined -> refined.length + 1);
+            }
         }
 
         @Override
@@ -210,12 +225,23 @@ public class RefinementOperator {
             }
         }
 
-        public Stream<OWLClassExpression> refine(OWLClassExpression concept) throws IllegalArgumentException {
+        private Stream<OWLClassExpression> uncachedRefine(OWLClassExpression concept)
+                throws IllegalArgumentException {
             // Since all rules include {@code way.apply(concept)} we perform this operation
             // here.
             return Stream.concat(way.apply(concept), concept.accept(this)).distinct();
         }
 
+        public Stream<OWLClassExpression> refine(OWLClassExpression concept) throws IllegalArgumentException {
+            if (cache != null) {
+                // Subexpressions are shared between many axioms, and the results for them
+                // are reused as long as they are in the cache.
+                return Arrays.stream(cache.apply(concept));
+            } else {
+                return uncachedRefine(concept);
+            }
+        }
+
         public Stream<OWLObjectPropertyExpression> refine(OWLObjectPropertyExpression role, boolean simple) {
             if ((flags & FLAG_ALC_STRICT) != 0) {
                 return Stream.of(role);
@@ -227,6 +253,31 @@ public class RefinementOperator {
 
     private Visitor visitor;
 
+    /**
+     * Create a new refinement operator.
+     *
+     * @param way
+     *            For generalization the upward cover, for specialization the
+     *            downward cover.
+     * @param back
+     *            For generalization the downward cover, for specialization the
+     *            upward cover.
+     * @param flags
+     *            Bitset containing flags for restricting the implementation. If
+     *            FLAG_ALC_STRICT is set, an exception will be raised if a concept
+     *            is not valid in ALC. If FLAG_NNF_STRICT is set, the input must
+     *            be in NNF and the output will also be in NNF. If FLAG_UNCACHED
+     *            is set, refinements of concepts are not memoized.
+     * @param cacheBudget
+     *            The maximum number of concepts kept in the refinement cache of
+     *            each direction.
+     */
+    public RefinementOperator(Cover way, Cover back, int flags, long cacheBudget) {
+        visitor = new Visitor(way, back, flags, cacheBudget);
+        visitor.reverse = new Visitor(back, way, flags, cacheBudget);
+        visitor.reverse.reverse = visitor;
+    }
+
     /**
      * Create a new refinement operator.
      *
@@ -243,9 +294,7 @@ public class RefinementOperator {
      *            be in NNF and the output will also be in NNF.
      */
     public RefinementOperator(Cover way, Cover back, int flags) {
-        visitor = new Visitor(way, back, flags);
-        visitor.reverse = new Visitor(back, way, flags);
-        visitor.reverse.reverse = visitor;
+        this(way, back, flags, DEFAULT_CACHE_BUDGET);
     }
 
     /**
@@ -22,6 +22,14 @@ public abstract class OntologyRepair implements OntologyModification {
      * A callback that should be called if we have info messages.
      */
     protected Consumer<String> infoCallback;
+    /**
+     * The executor to run parallel work on, or null to use the default one.
+     */
+    protected RepairExecutor executor;
+    /**
+     * The checkpoint to periodically save the state of the repair to, or null.
+     */
+    protected RepairCheckpoint checkpoint;
 
     /**
      * @param isRepaired
@@ -59,6 +67,55 @@ public abstract class OntologyRepair implements OntologyModification {
         this.infoCallback = infoCallback;
     }
 
+    /**
+     * @param executor
+     *            The executor to use for parallel work, or null to use the
+     *            shared default executor.
+     */
+    public void setExecutor(RepairExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return The executor to use for parallel work.
+     */
+    protected RepairExecutor getExecutor() {
+        return executor != null ? executor : RepairExecutor.getDefault();
+    }
+
+    /**
+     * Repairs that support checkpoints resume from the state stored in
+     * {@code checkpoint} if there is one, and periodically save their state to
+     * it while running. Repairs without support for checkpoints ignore it.
+     *
+     * @param checkpoint
+     *            The checkpoint to use, or null to disable checkpoints.
+     */
+    public void setCheckpoint(RepairCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * @return The state to resume the repair from, or null if the repair should
+     *         start from the beginning.
+     */
+    protected RepairCheckpoint.State resumedState() {
+        return checkpoint != null ? checkpoint.load() : null;
+    }
+
+    /**
+     * Save the state of the repair, if checkpoints are enabled and the last
+     * checkpoint is old enough.
+     *
+     * @param state
+     *            The supplier of the current state of the repair.
+     */
+    protected void saveCheckpoint(Supplier<RepairCheckpoint.State> state) {
+        if (checkpoint != null) {
+            checkpoint.saveIfDue(state);
+        }
+    }
+
     /**
      * @param message
      *            The new info message to send.
@@ -82,6 +139,21 @@ public abstract class OntologyRepair implements OntologyModification {
                 + " subset of size " + mcs.size() + "."));
     }
 
+    /**
+     * A hash of a set of axioms can be computed as the sum of the hashes of its
+     * axioms, so that it can be updated for every replaced axiom.
+     *
+     * @param axiom
+     *            The axiom to hash.
+     * @return A 64-bit hash of {@code axiom}.
+     */
+    protected static long axiomHash(OWLAxiom axiom) {
+        var hash = ((long) axiom.hashCode() << 32) ^ (axiom.toString().hashCode() & 0xffffffffL);
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
     @Override
     public void apply(Ontology ontology) throws IllegalArgumentException {
         infoMessage("Checking precondition...");
@@ -0,0 +1,235 @@
+package www.ontologyutils.repair;
+
+import java.util.*;
+import java.util.function.*;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import www.ontologyutils.refinement.AxiomWeakener;
+import www.ontologyutils.toolbox.*;
+
+/**
+ * An implementation of {@code OntologyRepair}. It repairs an inconsistent
+ * ontology using a beam search over partial weakening repairs. In every level,
+ * each of the partial repairs in the beam is expanded by weakening a random
+ * bad axiom a fixed number of times, and the children are expanded in
+ * parallel on the executor of the repair. Children that are equal to an
+ * already seen partial repair are discarded. Children that are repaired are
+ * evaluated using the quality measure, while only the best of the remaining
+ * children, according to {@code estimateQuality}, are kept for the next level.
+ * The estimate does not use the reasoner, so that ranking partial repairs is
+ * cheap compared to evaluating repairs.
+ *
+ * As for {@code OntologyRepairBestOfKWeakening}, the search can be limited by
+ * a time or reasoner call budget. Once the budget is exhausted, the best repair
+ * found so far is selected. If no repair has been found at that point, the
+ * search continues until the first repair is found.
+ */
+public class OntologyRepairBeamWeakening extends OntologyRepairBestOfKWeakening {
+    /**
+     * A partial repair in the beam, together with its bad axioms.
+     */
+    private static class State implements AutoCloseable {
+        public final Ontology ontology;
+        public final long axiomsHash;
+        public final List<OWLAxiom> badAxioms;
+        public final double estimate;
+
+        public State(Ontology ontology, long axiomsHash, List<OWLAxiom> badAxioms, double estimate) {
+            this.ontology = ontology;
+            this.axiomsHash = axiomsHash;
+            this.badAxioms = badAxioms;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public void close() {
+            ontology.close();
+        }
+    }
+
+    /**
+     * The number of partial repairs kept in every level of the search.
+     */
+    protected int beamWidth;
+    /**
+     * The number of children generated for every partial repair in the beam.
+     */
+    protected int branchingFactor;
+
+    /**
+     * @param isRepaired
+     *            The predicate testing whether an ontology is repaired.
+     * @param refOntologySource
+     *            The strategy for computing the reference ontology.
+     * @param badAxiomSource
+     *            The strategy for computing bad axioms.
+     * @param weakeningFlags
+     *            The flags to use for weakening.
+     * @param enhanceRef
+     *            Do not weaken any of the axioms in the reference ontology.
+     * @param quality
+     *            Function for evaluating the quality of a repair. If null, the
+     *            number of inferred taxonomy axioms is used.
+     * @param beamWidth
+     *            The number of partial repairs to keep in every level.
+     * @param branchingFactor
+     *            The number of children to generate for every partial repair.
+     */
+    public OntologyRepairBeamWeakening(Predicate<Ontology> isRepaired, RefOntologyStrategy refOntologySource,
+            BadAxiomStrategy badAxiomSource, int weakeningFlags, boolean enhanceRef, Function<Ontology, Double> quality,
+            int beamWidth, int branchingFactor) {
+        // The number of rounds of best-of-k is not used. The search ends once no partial repairs are left,
+        // or once the budget is exhausted.
+        super(isRepaired, refOntologySource, badAxiomSource, weakeningFlags, enhanceRef, quality, Integer.MAX_VALUE);
+        this.beamWidth = beamWidth;
+        this.branchingFactor = branchingFactor;
+    }
+
+    /**
+     * @param isRepaired
+     *            The predicate testing whether an ontology is repaired.
+     * @param beamWidth
+     *            The number of partial repairs to keep in every level.
+     * @param branchingFactor
+     *            The number of children to generate for every partial repair.
+     */
+    public OntologyRepairBeamWeakening(Predicate<Ontology> isRepaired, int beamWidth, int branchingFactor) {
+        this(isRepaired, RefOntologyStrategy.INTERSECTION_OF_SOME_MCS, BadAxiomStrategy.IN_ONE_MUS,
+                AxiomWeakener.FLAG_DEFAULT, false, null, beamWidth, branchingFactor);
+    }
+
+    /**
+     * @param beamWidth
+     *            The number of partial repairs to keep in every level.
+     * @param branchingFactor
+     *            The number of children to generate for every partial repair.
+     * @return An instance of {@code OntologyRepairBeamWeakening} that tries to
+     *         make the ontology consistent.
+     */
+    public static OntologyRepair forConsistency(int beamWidth, int branchingFactor) {
+        return new OntologyRepairBeamWeakening(Ontology::isConsistent, beamWidth, branchingFactor);
+    }
+
+    /**
+     * @param beamWidth
+     *            The number of partial repairs to keep in every level.
+     * @param branchingFactor
+     *            The number of children to generate for every partial repair.
+     * @return An instance of {@code OntologyRepairBeamWeakening} that tries to
+     *         make the ontology coherent.
+     */
+    public static OntologyRepair forCoherence(int beamWidth, int branchingFactor) {
+        return new OntologyRepairBeamWeakening(Ontology::isCoherent, beamWidth, branchingFactor);
+    }
+
+    /**
+     * Estimate the quality of the repairs that can be reached from a partial
+     * repair, without any reasoner calls. The default implementation prefers
+     * partial repairs that keep more of the reference axioms unchanged, and
+     * among those the ones with fewer bad axioms left.
+     *
+     * @param partial
+     *            The partial repair that is not yet repaired.
+     * @param badAxioms
+     *            The bad axioms of {@code partial}.
+     * @param refAxioms
+     *            The axioms of the selected reference ontology.
+     * @return The estimated quality. Larger values are better.
+     */
+    protected double estimateQuality(Ontology partial, Collection<OWLAxiom> badAxioms, Set<OWLAxiom> refAxioms) {
+        var axioms = Utils.toSet(partial.axioms());
+        var kept = refAxioms.stream().filter(axioms::contains).count();
+        return kept + 1.0 / (1 + badAxioms.size());
+    }
+
+    @Override
+    public void repair(Ontology ontology) {
+        var resumed = resumedState();
+        var refAxioms = selectRefAxioms(ontology, resumed);
+        var bestResult = resumedBestResult(resumed);
+        try (var refOntology = ontology.cloneWithRefutable(refAxioms).withSeparateCache();
+                var root = ontology.cloneWithSeparateCache()) {
+            var axiomWeakener = getWeakener(refOntology, ontology);
+            var quality = getQuality(ontology, refOntology);
+            if (isRepaired(root)) {
+                bestResult.clear();
+                bestResult.add(new AbstractMap.SimpleEntry<>(Utils.toSet(root.refutableAxioms()), 0.0));
+            } else {
+                var startTime = System.nanoTime();
+                var startCalls = Ontology.reasonerCalls;
+                BooleanSupplier stop = () -> {
+                    synchronized (bestResult) {
+                        return !bestResult.isEmpty() && isBudgetExhausted(startTime, startCalls);
+                    }
+                };
+                var seen = Collections.synchronizedSet(new HashSet<Long>());
+                var rootHash = root.refutableAxioms().mapToLong(OntologyRepair::axiomHash).sum();
+                seen.add(rootHash);
+                var rootBadAxioms = Utils.toList(findBadAxioms(root));
+                var beam = List.of(new State(root.clone(), rootHash, rootBadAxioms, 0.0));
+                while (!beam.isEmpty() && !stop.getAsBoolean()) {
+                    var parents = beam;
+                    var children = Collections.synchronizedList(new ArrayList<State>());
+                    try {
+                        getExecutor().runRounds((long) parents.size() * branchingFactor, stop, i -> {
+                            var parent = parents.get((int) (i / branchingFactor));
+                            var badAxiom = Utils.randomChoice(parent.badAxioms);
+                            var weakerAxiom = Utils.randomChoice(Utils.toList(axiomWeakener.weakerAxioms(badAxiom)));
+                            var hash = parent.axiomsHash - axiomHash(badAxiom)
+                                    + axiomHash(Ontology.getOriginAnnotatedAxiom(weakerAxiom, badAxiom));
+                            if (!seen.add(hash)) {
+                                return;
+                            }
+                            var child = parent.ontology.clone();
+                            try {
+                                child.replaceAxiom(badAxiom, weakerAxiom);
+                                if (isRepaired(child)) {
+                                    var result = new AbstractMap.SimpleEntry<>(Utils.toSet(child.refutableAxioms()),
+                                            quality.apply(child));
+                                    infoMessage("Found repair with quality  " + result.getValue() + ".");
+                                    synchronized (bestResult) {
+                                        if (bestResult.isEmpty() || result.getValue() > bestResult.get(0).getValue()) {
+                                            bestResult.clear();
+                                            bestResult.add(result);
+                                            infoMessage("New best repair with quality  " + result.getValue() + ".");
+                                        }
+                                    }
+                                    child.close();
+                                } else {
+                                    var badAxioms = Utils.toList(findBadAxioms(child));
+                                    var estimate = estimateQuality(child, badAxioms, refAxioms);
+                                    children.add(new State(child, hash, badAxioms, estimate));
+                                }
+                            } catch (RuntimeException e) {
+                                child.close();
+                                throw e;
+                            }
+                        });
+                    } finally {
+                        parents.forEach(State::close);
+                    }
+                    // Shuffle first, so that ties between equal estimates are broken randomly.
+                    var ranked = Utils.randomOrder(children);
+                    ranked.sort(Comparator.comparingDouble((State state) -> state.estimate).reversed());
+                    beam = List.copyOf(ranked.subList(0, Math.min(beamWidth, ranked.size())));
+                    ranked.subList(beam.size(), ranked.size()).forEach(State::close);
+                    infoMessage("Expanded beam to " + children.size() + " partial repairs, keeping " + beam.size()
+                            + ".");
+                    if (beam.isEmpty() && bestResult.isEmpty()) {
+                        // All children were already seen before any repair was found. Start over, forgetting
+                        // the seen partial repairs, since otherwise the children of the root may all be rejected.
+                        infoMessage("No partial repairs left. Restarting from the original ontology.");
+                        seen.clear();
+                        seen.add(rootHash);
+                        beam = List.of(new State(root.clone(), rootHash, rootBadAxioms, 0.0));
+                    }
+                    saveCheckpoint(() -> checkpointState(refAxioms, bestResult, 0));
+                }
+                beam.forEach(State::close);
+            }
+        }
+        infoMessage("Selected repair with quality  " + bestResult.get(0).getValue() + ".");
+        ontology.setRefutableAxioms(bestResult.get(0).getKey());
+    }
+}
@@ -54,15 +54,20 @@ public class OntologyRepairBestMcs extends OntologyRepairRandomMcs {
     @Override
     public void repair(Ontology ontology) {
         var possibleCorrections = Utils.toList(mcsPeekInfo(true, computeMcs(ontology)));
-        var bestCorrection = possibleCorrections.parallelStream()
-                .map(correction -> {
-                    try (var copy = ontology.cloneWithSeparateCache()) {
-                        copy.removeAxioms(correction);
-                        return new AbstractMap.SimpleEntry<>(correction, quality.apply(copy));
-                    }
-                })
-                .max(Comparator.comparingDouble(e -> e.getValue()))
-                .get().getKey();
+        var qualities = new double[possibleCorrections.size()];
+        getExecutor().runRounds(possibleCorrections.size(), i -> {
+            try (var copy = ontology.cloneWithSeparateCache()) {
+                copy.removeAxioms(possibleCorrections.get((int) i));
+                qualities[(int) i] = quality.apply(copy);
+            }
+        });
+        var bestIndex = 0;
+        for (int i = 1; i < qualities.length; i++) {
+            if (qualities[i] > qualities[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+        var bestCorrection = possibleCorrections.get(bestIndex);
         ontology.removeAxioms(bestCorrection);
         infoMessage("Selected a repair with " + ontology.axioms().count() + " axioms.");
     }
@@ -1,7 +1,7 @@
 package www.ontologyutils.repair;
 
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.*;
 
 import org.semanticweb.owlapi.model.OWLAxiom;
@@ -13,16 +13,29 @@ import www.ontologyutils.toolbox.*;
  * An implementation of {@code OntologyRepair}. It repairs an inconsistent
  * ontology by choosing the best repair found withing k weakening repairs.
  * For efficiency, all repairs are performed using the same reference ontology.
+ *
+ * Optionally, the search can be limited by a time or reasoner call budget. Once
+ * the budget is exhausted, no new rounds are started, the running rounds are
+ * interrupted, and the best repair found so far is selected.
  */
 public class OntologyRepairBestOfKWeakening extends OntologyRepairWeakening {
     /**
-     * The function to use as a quality measure.
+     * The function to use as a quality measure, or null to count the inferred
+     * taxonomy axioms using a {@code TaxonomyQuality}.
      */
     protected Function<Ontology, Double> quality;
     /**
      * The number of rounds of repairs that should be performed.
      */
     protected int numberOfRounds;
+    /**
+     * The maximum number of milliseconds to spend on the rounds.
+     */
+    protected long timeBudget = Long.MAX_VALUE;
+    /**
+     * The maximum number of reasoner calls to perform during the rounds.
+     */
+    protected long reasonerCallBudget = Long.MAX_VALUE;
 
     /**
      * @param isRepaired
@@ -36,7 +49,8 @@ public class OntologyRepairBestOfKWeakening extends OntologyRepairWeakening {
      * @param enhanceRef
      *            Do not weaken any of the axioms in the reference ontology.
      * @param quality
-     *            Function for evaluating the quality of a repair.
+     *            Function for evaluating the quality of a repair. If null, the
+     *            number of inferred taxonomy axioms is used.
      * @param numberOfRounds
      *            The number of repairs to perform.
      */
@@ -56,7 +70,7 @@ public class OntologyRepairBestOfKWeakening extends OntologyRepairWeakening {
      */
     public OntologyRepairBestOfKWeakening(Predicate<Ontology> isRepaired, int numberOfRounds) {
         this(isRepaired, RefOntologyStrategy.INTERSECTION_OF_SOME_MCS, BadAxiomStrategy.IN_ONE_MUS,
-                AxiomWeakener.FLAG_DEFAULT, false, o -> (double) o.inferredTaxonomyAxioms().count(), numberOfRounds);
+                AxiomWeakener.FLAG_DEFAULT, false, null, numberOfRounds);
     }
 
     /**
@@ -79,48 +93,151 @@ public class OntologyRepairBestOfKWeakening extends OntologyRepairWeakening {
         return new OntologyRepairBestOfKWeakening(Ontology::isCoherent, numberOfRounds);
     }
 
+    /**
+     * @param timeBudget
+     *            The maximum number of milliseconds to spend searching for
+     *            repairs. Use Long.MAX_VALUE to disable the limit.
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * The reasoner calls are counted using {@code Ontology.reasonerCalls}, and
+     * therefore include the calls of all concurrently running repairs.
+     *
+     * @param reasonerCallBudget
+     *            The maximum number of reasoner calls to perform while searching
+     *            for repairs. Use Long.MAX_VALUE to disable the limit.
+     */
+    public void setReasonerCallBudget(long reasonerCallBudget) {
+        this.reasonerCallBudget = reasonerCallBudget;
+    }
+
+    /**
+     * @param startTime
+     *            The value of {@code System.nanoTime()} at the start of the
+     *            search.
+     * @param startCalls
+     *            The value of {@code Ontology.reasonerCalls} at the start of the
+     *            search.
+     * @return True iff the time or reasoner call budget is exhausted.
+     */
+    protected boolean isBudgetExhausted(long startTime, int startCalls) {
+        return (System.nanoTime() - startTime) / 1_000_000 >= timeBudget
+                || Ontology.reasonerCalls - startCalls >= reasonerCallBudget;
+    }
+
+    /**
+     * Run {@code round} in parallel on the executor of this repair until
+     * {@code rounds} rounds have been started or the budget is exhausted.
+     * Rounds that are still running when the budget is exhausted are interrupted.
+     *
+     * @param rounds
+     *            The number of rounds to run.
+     * @param round
+     *            The action to perform in each round.
+     */
+    protected void runRounds(long rounds, Runnable round) {
+        var startTime = System.nanoTime();
+        var startCalls = Ontology.reasonerCalls;
+        getExecutor().runRounds(rounds, () -> isBudgetExhausted(startTime, startCalls), i -> round.run());
+    }
+
+    /**
+     * Run {@code round} in parallel on the executor of this repair until
+     * {@code numberOfRounds} rounds have been started or the budget is exhausted.
+     *
+     * @param round
+     *            The action to perform in each round.
+     */
+    protected void runRounds(Runnable round) {
+        runRounds(numberOfRounds, round);
+    }
+
+    /**
+     * @param refAxioms
+     *            The axioms of the selected reference ontology.
+     * @param bestResult
+     *            The list containing the best result found so far, if any.
+     * @param completed
+     *            The number of completed rounds.
+     * @return The state to save in a checkpoint.
+     */
+    protected static RepairCheckpoint.State checkpointState(Set<OWLAxiom> refAxioms,
+            List<Map.Entry<Set<OWLAxiom>, Double>> bestResult, long completed) {
+        synchronized (bestResult) {
+            if (bestResult.isEmpty()) {
+                return new RepairCheckpoint.State(refAxioms, null, null, Double.NaN, completed);
+            } else {
+                return new RepairCheckpoint.State(refAxioms, null, bestResult.get(0).getKey(),
+                        bestResult.get(0).getValue(), completed);
+            }
+        }
+    }
+
+    /**
+     * @param resumed
+     *            The state to resume from, or null.
+     * @return A list containing the best result of {@code resumed}, if any.
+     */
+    protected static List<Map.Entry<Set<OWLAxiom>, Double>> resumedBestResult(RepairCheckpoint.State resumed) {
+        var bestResult = new ArrayList<Map.Entry<Set<OWLAxiom>, Double>>();
+        if (resumed != null && resumed.bestAxioms() != null) {
+            bestResult.add(new AbstractMap.SimpleEntry<>(resumed.bestAxioms(), resumed.bestQuality()));
+        }
+        return bestResult;
+    }
+
+    /**
+     * @param ontology
+     *            The ontology that is being repaired.
+     * @param refOntology
+     *            The reference ontology used for the repair.
+     * @return The function to use for evaluating the quality of repairs.
+     */
+    protected Function<Ontology, Double> getQuality(Ontology ontology, Ontology refOntology) {
+        return quality != null ? quality : new TaxonomyQuality(ontology, refOntology);
+    }
+
     @Override
     public void repair(Ontology ontology) {
-        var refAxioms = Utils.randomChoice(getRefAxioms(ontology));
-        infoMessage("Selected a reference ontology with " + refAxioms.size() + " axioms.");
-        if (enhanceRef) {
-            ontology.addStaticAxioms(refAxioms);
-        }
-        var repairs = new ArrayList<Map.Entry<Set<OWLAxiom>, Double>>();
+        var resumed = resumedState();
+        var refAxioms = selectRefAxioms(ontology, resumed);
+        var bestResult = resumedBestResult(resumed);
+        var completed = new AtomicLong(resumed != null ? resumed.completed() : 0);
         try (var refOntology = ontology.cloneWithRefutable(refAxioms).withSeparateCache()) {
             var axiomWeakener = getWeakener(refOntology, ontology);
-            var parallelism = Runtime.getRuntime().availableProcessors();
-            var executor = Executors.newFixedThreadPool(parallelism);
-            for (int i = 0; i < numberOfRounds; i++) {
-                executor.execute(() -> {
-                    try (var copy = ontology.cloneWithSeparateCache()) {
-                        while (!isRepaired(copy)) {
-                            var badAxioms = Utils.toList(findBadAxioms(copy));
-                            var badAxiom = Utils.randomChoice(badAxioms);
-                            var weakerAxioms = Utils.toList(axiomWeakener.weakerAxioms(badAxiom));
-                            var weakerAxiom = Utils.randomChoice(weakerAxioms);
-                            copy.replaceAxiom(badAxiom, weakerAxiom);
-                        }
-                        var result = new AbstractMap.SimpleEntry<>(Utils.toSet(copy.refutableAxioms()),
-                                quality.apply(copy));
-                        infoMessage("Found repair with quality  " + result.getValue() + ".");
-                        synchronized (repairs) {
-                            repairs.add(result);
+            var quality = getQuality(ontology, refOntology);
+            Runnable round = () -> {
+                try (var copy = ontology.cloneWithSeparateCache()) {
+                    while (!isRepaired(copy)) {
+                        var badAxioms = Utils.toList(findBadAxioms(copy));
+                        var badAxiom = Utils.randomChoice(badAxioms);
+                        var weakerAxiom = Utils.randomChoice(Utils.toList(axiomWeakener.weakerAxioms(badAxiom)));
+                        copy.replaceAxiom(badAxiom, weakerAxiom);
+                    }
+                    var result = new AbstractMap.SimpleEntry<>(Utils.toSet(copy.refutableAxioms()),
+                            quality.apply(copy));
+                    infoMessage("Found repair with quality  " + result.getValue() + ".");
+                    synchronized (bestResult) {
+                        if (bestResult.isEmpty() || result.getValue() > bestResult.get(0).getValue()) {
+                            bestResult.clear();
+                            bestResult.add(result);
+                            infoMessage("New best repair with quality  " + result.getValue() + ".");
                         }
                     }
-                });
-            }
-            executor.shutdown();
-            try {
-                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-            } catch (InterruptedException e) {
-                throw new CanceledException();
+                }
+                var rounds = completed.incrementAndGet();
+                saveCheckpoint(() -> checkpointState(refAxioms, bestResult, rounds));
+            };
+            runRounds(Math.max(0, numberOfRounds - completed.get()), round);
+            if (bestResult.isEmpty()) {
+                // The budget was exhausted before any round finished. We still need some repair.
+                round.run();
             }
         }
-        var bestResult = repairs.stream()
-                .max(Comparator.comparingDouble(e -> e.getValue()))
-                .get();
-        infoMessage("Selected repair with quality  " + bestResult.getValue() + ".");
-        ontology.setRefutableAxioms(bestResult.getKey());
+        infoMessage("Selected repair with quality  " + bestResult.get(0).getValue() + ".");
+        ontology.setRefutableAxioms(bestResult.get(0).getKey());
     }
 }
@@ -1,7 +1,7 @@
 package www.ontologyutils.repair;
 
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.*;
 import java.util.stream.Stream;
 
@@ -16,38 +16,68 @@ import www.ontologyutils.toolbox.*;
  * For efficiency, all repairs are performed using the same reference ontology.
  */
 public class OntologyRepairMctsWeakening extends OntologyRepairBestOfKWeakening {
+    /**
+     * The maximum total number of moves kept in the cache of possible moves.
+     */
+    public static final long MOVE_CACHE_BUDGET = 1 << 20;
+
     private static record GameMove(boolean select, OWLAxiom axiom) {
     }
 
+    private static record StateKey(long axiomsHash, OWLAxiom toWeaken) {
+    }
+
     private class Game implements Mcts.Game<GameMove> {
         private Ontology ontology;
         private AxiomWeakener weakener;
         private OWLAxiom toWeaken;
         private Function<Ontology, Double> quality;
+        private WeightedCache<StateKey, List<GameMove>> moveCache;
+        private long axiomsHash;
 
         public Game(Ontology ontology, AxiomWeakener weakener, Function<Ontology, Double> quality) {
             this.ontology = ontology.cloneWithSeparateCache();
             this.weakener = weakener;
             this.quality = quality;
+            this.moveCache = new WeightedCache<>(MOVE_CACHE_BUDGET, moves -> moves.size() + 1);
             this.toWeaken = null;
+            // The origin annotation of a replacement only depends on the axiom it
+            // replaces, so weakening two axioms in either order yields equal hashes.
+            this.axiomsHash = ontology.refutableAxioms().mapToLong(OntologyRepair::axiomHash).sum();
+        }
+
+        private Game(Game other) {
+            this.ontology = other.ontology.cloneWithSeparateCache();
+            this.weakener = other.weakener;
+            this.quality = other.quality;
+            this.moveCache = other.moveCache;
+            this.toWeaken = other.toWeaken;
+            this.axiomsHash = other.axiomsHash;
         }
 
         @Override
         public Mcts.Game<GameMove> copy() {
-            var copy = new Game(ontology, weakener, quality);
-            copy.toWeaken = toWeaken;
-            return copy;
+            return new Game(this);
         }
 
-        @Override
-        public Stream<GameMove> possibleMoves() {
+        private List<GameMove> computeMoves() {
             if (toWeaken == null) {
-                return findBadAxioms(ontology).map(ax -> new GameMove(true, ax));
+                return Utils.toList(findBadAxioms(ontology).map(ax -> new GameMove(true, ax)));
             } else {
-                return weakener.weakerAxioms(toWeaken).map(ax -> new GameMove(false, ax));
+                return Utils.toList(weakener.weakerAxioms(toWeaken).map(ax -> new GameMove(false, ax)));
             }
         }
 
+        /**
+         * The moves are cached for all copies of the game. The bad axioms depend on
+         * the whole state, but the weaker axioms only depend on the axiom to weaken.
+         */
+        @Override
+        public Stream<GameMove> possibleMoves() {
+            var key = toWeaken == null ? new StateKey(axiomsHash, null) : new StateKey(0, toWeaken);
+            return moveCache.computeIfAbsent(key, k -> computeMoves()).stream();
+        }
+
         @Override
         public void performMove(GameMove move) {
             if (toWeaken == null) {
@@ -56,10 +86,16 @@ public class OntologyRepairMctsWeakening extends OntologyRepairBestOfKWeakening
             } else {
                 assert !move.select;
                 ontology.replaceAxiom(toWeaken, move.axiom);
+                axiomsHash += axiomHash(Ontology.getOriginAnnotatedAxiom(move.axiom, toWeaken)) - axiomHash(toWeaken);
                 toWeaken = null;
             }
         }
 
+        @Override
+        public Object stateKey() {
+            return new StateKey(axiomsHash, toWeaken);
+        }
+
         @Override
         public boolean isTerminal() {
             return isRepaired(ontology);
@@ -88,7 +124,8 @@ public class OntologyRepairMctsWeakening extends OntologyRepairBestOfKWeakening
      * @param enhanceRef
      *            Do not weaken any of the axioms in the reference ontology.
      * @param quality
-     *            Function for evaluating the quality of a repair.
+     *            Function for evaluating the quality of a repair. If null, the
+     *            number of inferred taxonomy axioms is used.
      * @param numberOfRounds
      *            The number of repairs to perform.
      */
@@ -106,7 +143,7 @@ public class OntologyRepairMctsWeakening extends OntologyRepairBestOfKWeakening
      */
     public OntologyRepairMctsWeakening(Predicate<Ontology> isRepaired, int numberOfRounds) {
         this(isRepaired, RefOntologyStrategy.INTERSECTION_OF_SOME_MCS, BadAxiomStrategy.IN_ONE_MUS,
-                AxiomWeakener.FLAG_DEFAULT, false, o -> (double) o.inferredTaxonomyAxioms().count(), numberOfRounds);
+                AxiomWeakener.FLAG_DEFAULT, false, null, numberOfRounds);
     }
 
     /**
@@ -132,15 +169,18 @@ public class OntologyRepairMctsWeakening extends OntologyRepairBestOfKWeakening
     @Override
     @SuppressWarnings("unchecked")
     public void repair(Ontology ontology) {
-        var refAxioms = Utils.randomChoice(getRefAxioms(ontology));
-        infoMessage("Selected a reference ontology with " + refAxioms.size() + " axioms.");
-        if (enhanceRef) {
-            ontology.addStaticAxioms(refAxioms);
-        }
+        var resumed = resumedState();
+        var refAxioms = selectRefAxioms(ontology, resumed);
         var bestAxioms = new Set<?>[] { Set.of() };
         var bestQuality = new Double[] { Double.NEGATIVE_INFINITY };
+        if (resumed != null && resumed.bestAxioms() != null) {
+            bestAxioms[0] = resumed.bestAxioms();
+            bestQuality[0] = resumed.bestQuality();
+        }
+        var completed = new AtomicLong(resumed != null ? resumed.completed() : 0);
         try (var refOntology = ontology.cloneWithRefutable(refAxioms).withSeparateCache()) {
             var axiomWeakener = getWeakener(refOntology, ontology);
+            var quality = getQuality(ontology, refOntology);
             var game = new Game(ontology, axiomWeakener, onto -> {
                 var thisQuality = quality.apply(onto);
                 infoMessage("Found repair with quality  " + thisQuality + ".");
@@ -148,23 +188,28 @@ public class OntologyRepairMctsWeakening extends OntologyRepairBestOfKWeakening
                     if (thisQuality > bestQuality[0]) {
                         bestAxioms[0] = Utils.toSet(onto.axioms());
                         bestQuality[0] = thisQuality;
+                        infoMessage("New best repair with quality  " + thisQuality + ".");
                     }
                 }
                 return thisQuality;
             });
             try (var mcts = new Mcts<>(game)) {
-                var parallelism = Runtime.getRuntime().availableProcessors();
-                var executor = Executors.newFixedThreadPool(parallelism);
-                for (int i = 0; i < numberOfRounds; i++) {
-                    executor.execute(() -> {
-                        mcts.runSimulation();
+                // The search tree is not part of the checkpoint. When resuming, only the best repair
+                // and the number of completed simulations are restored.
+                runRounds(Math.max(0, numberOfRounds - completed.get()), () -> {
+                    mcts.runSimulation();
+                    var rounds = completed.incrementAndGet();
+                    saveCheckpoint(() -> {
+                        synchronized (bestQuality) {
+                            return new RepairCheckpoint.State(refAxioms, null,
+                                    bestQuality[0] == Double.NEGATIVE_INFINITY ? null : (Set<OWLAxiom>) bestAxioms[0],
+                                    bestQuality[0], rounds);
+                        }
                     });
-                }
-                executor.shutdown();
-                try {
-                    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-                } catch (InterruptedException e) {
-                    throw new CanceledException();
+                });
+                while (bestQuality[0] == Double.NEGATIVE_INFINITY) {
+                    // The budget was exhausted before any simulation finished. We still need some repair.
+                    mcts.runSimulation();
                 }
             }
         }
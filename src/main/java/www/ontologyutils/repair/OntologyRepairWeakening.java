@@ -1,12 +1,14 @@
 package www.ontologyutils.repair;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.function.*;
 import java.util.stream.*;
 
 import org.semanticweb.owlapi.model.*;
 
-import www.ontologyutils.refinement.AxiomWeakener;
+import www.ontologyutils.refinement.*;
 import www.ontologyutils.toolbox.*;
 
 /**
@@ -51,6 +53,17 @@ public class OntologyRepairWeakening extends OntologyRepairRemoval {
         INTERSECTION_OF_SOME_MCS,
     }
 
+    /**
+     * The maximum number of repairs generated by {@code multiple} that are
+     * buffered before being consumed.
+     */
+    public static final int MULTIPLE_QUEUE_SIZE = 16;
+    /**
+     * The number of milliseconds to wait between checks for a free place in
+     * the queue of {@code multiple}, or for a failure of its generation.
+     */
+    private static final long MULTIPLE_POLL_MILLIS = 10;
+
     private RefOntologyStrategy refOntologySource;
     private int weakeningFlags;
     /**
@@ -59,6 +72,10 @@ public class OntologyRepairWeakening extends OntologyRepairRemoval {
      * adding more data using axiom weakening.
      */
     protected boolean enhanceRef;
+    /**
+     * If true, {@code multiple} does not return the same repair more than once.
+     */
+    protected boolean uniqueRepairs;
 
     /**
      * @param isRepaired
@@ -89,6 +106,18 @@ public class OntologyRepairWeakening extends OntologyRepairRemoval {
         this(isRepaired, RefOntologyStrategy.ONE_MCS, BadAxiomStrategy.IN_SOME_MUS, AxiomWeakener.FLAG_DEFAULT, true);
     }
 
+    /**
+     * Note that if this is set, the stream returned by {@code multiple} will block
+     * forever once all possible repairs have been found.
+     *
+     * @param uniqueRepairs
+     *            Whether {@code multiple} should filter out repairs that contain
+     *            the same axioms as a previously returned repair.
+     */
+    public void setUniqueRepairs(boolean uniqueRepairs) {
+        this.uniqueRepairs = uniqueRepairs;
+    }
+
     /**
      * @return An instance of {@code OntologyRepairWeakening} that tries to make the
      *         ontology consistent.
@@ -133,7 +162,21 @@ public class OntologyRepairWeakening extends OntologyRepairRemoval {
      * @return Weakener using the configuration of this repair.
      */
     public AxiomWeakener getWeakener(Ontology refOntology, Ontology fullOntology) {
-        return new AxiomWeakener(refOntology, fullOntology, weakeningFlags);
+        return getWeakener(refOntology, fullOntology, null);
+    }
+
+    /**
+     * @param refOntology
+     *            The reference ontology.
+     * @param fullOntology
+     *            The full ontology.
+     * @param sharedCaches
+     *            The subsumption caches to share with other weakeners. May be
+     *            null.
+     * @return Weakener using the configuration of this repair.
+     */
+    public AxiomWeakener getWeakener(Ontology refOntology, Ontology fullOntology, Covers.SharedCaches sharedCaches) {
+        return new AxiomWeakener(refOntology, fullOntology, sharedCaches, weakeningFlags);
     }
 
     /**
@@ -176,67 +219,202 @@ public class OntologyRepairWeakening extends OntologyRepairRemoval {
         }
     }
 
-    @Override
-    public void repair(Ontology ontology) {
-        var refAxioms = Utils.randomChoice(getRefAxioms(ontology));
-        infoMessage("Selected a reference ontology with " + refAxioms.size() + " axioms.");
+    /**
+     * Select the reference ontology for repairing {@code ontology}, and make its
+     * axioms static if {@code enhanceRef} is set. When resuming, the reference
+     * ontology of the checkpoint is used instead of computing a new one.
+     *
+     * @param ontology
+     *            The ontology that is being repaired.
+     * @param resumed
+     *            The state to resume from, or null.
+     * @return The axioms of the selected reference ontology.
+     */
+    protected Set<OWLAxiom> selectRefAxioms(Ontology ontology, RepairCheckpoint.State resumed) {
+        Set<OWLAxiom> refAxioms;
+        if (resumed != null) {
+            refAxioms = resumed.refAxioms();
+            infoMessage("Resumed with a reference ontology with " + refAxioms.size() + " axioms.");
+        } else {
+            refAxioms = Utils.randomChoice(getRefAxioms(ontology));
+            infoMessage("Selected a reference ontology with " + refAxioms.size() + " axioms.");
+        }
         if (enhanceRef) {
             ontology.addStaticAxioms(refAxioms);
         }
+        return refAxioms;
+    }
+
+    @Override
+    public void repair(Ontology ontology) {
+        var resumed = resumedState();
+        var refAxioms = selectRefAxioms(ontology, resumed);
         try (var refOntology = ontology.cloneWithRefutable(refAxioms).withSeparateCache()) {
             var axiomWeakener = getWeakener(refOntology, ontology);
-            while (!isRepaired(ontology)) {
-                var badAxioms = Utils.toList(findBadAxioms(ontology));
-                infoMessage("Found " + badAxioms.size() + " possible bad axioms.");
-                var badAxiom = Utils.randomChoice(badAxioms);
-                infoMessage("Selected the bad axiom " + Utils.prettyPrintAxiom(badAxiom) + ".");
-                var weakerAxioms = Utils.toList(axiomWeakener.weakerAxioms(badAxiom));
-                infoMessage("Found " + weakerAxioms.size() + " weaker axioms.");
-                var weakerAxiom = Utils.randomChoice(weakerAxioms);
-                infoMessage("Selected the weaker axiom " + Utils.prettyPrintAxiom(weakerAxiom) + ".");
-                ontology.replaceAxiom(badAxiom, weakerAxiom);
+            if (resumed != null && resumed.refutableAxioms() != null) {
+                ontology.setRefutableAxioms(resumed.refutableAxioms());
             }
+            weakenUntilRepaired(ontology, axiomWeakener, () -> saveCheckpoint(() -> new RepairCheckpoint.State(
+                    refAxioms, Utils.toSet(ontology.refutableAxioms()), null, Double.NaN, 0)));
+        }
+    }
+
+    /**
+     * Replace randomly selected bad axioms by randomly selected weaker axioms until
+     * {@code ontology} is repaired.
+     *
+     * @param ontology
+     *            The ontology to repair.
+     * @param axiomWeakener
+     *            The weakener to use for finding weaker axioms.
+     */
+    private void weakenUntilRepaired(Ontology ontology, AxiomWeakener axiomWeakener) {
+        weakenUntilRepaired(ontology, axiomWeakener, () -> {
+        });
+    }
+
+    /**
+     * Replace randomly selected bad axioms by randomly selected weaker axioms until
+     * {@code ontology} is repaired.
+     *
+     * @param ontology
+     *            The ontology to repair.
+     * @param axiomWeakener
+     *            The weakener to use for finding weaker axioms.
+     * @param afterStep
+     *            The action to perform after every replaced axiom.
+     */
+    private void weakenUntilRepaired(Ontology ontology, AxiomWeakener axiomWeakener, Runnable afterStep) {
+        while (!isRepaired(ontology)) {
+            var badAxioms = Utils.toList(findBadAxioms(ontology));
+            infoMessage("Found " + badAxioms.size() + " possible bad axioms.");
+            var badAxiom = Utils.randomChoice(badAxioms);
+            infoMessage("Selected the bad axiom " + Utils.prettyPrintAxiom(badAxiom) + ".");
+            var weakerAxioms = Utils.toList(axiomWeakener.weakerAxioms(badAxiom));
+            infoMessage("Found " + weakerAxioms.size() + " weaker axioms.");
+            var weakerAxiom = Utils.randomChoice(weakerAxioms);
+            infoMessage("Selected the weaker axiom " + Utils.prettyPrintAxiom(weakerAxiom) + ".");
+            ontology.replaceAxiom(badAxiom, weakerAxiom);
+            afterStep.run();
         }
     }
 
+    /**
+     * @param ontology
+     *            The ontology to compute the hash for.
+     * @return A hash of the set of axioms in {@code ontology} that does not
+     *         depend on annotations, or on whether axioms are static or
+     *         refutable.
+     */
+    private static long canonicalHash(Ontology ontology) {
+        return Utils.toSet(ontology.axioms().map(axiom -> axiom.<OWLAxiom>getAxiomWithoutAnnotations()))
+                .stream().mapToLong(OntologyRepair::axiomHash).sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Repairs are generated in parallel on the executor of this repair and are
+     * buffered in a bounded queue until they are consumed. Rounds are only
+     * started while there is space left in the queue, so that a slowly
+     * consumed stream does not block the threads of the executor. If a round
+     * fails with an error, the generation stops and the error is thrown to the
+     * consumer of the stream. The generation is stopped once the returned stream
+     * is closed, so the stream must always be closed.
+     */
     @Override
     public Stream<Ontology> multiple(Ontology ontology) {
         // Optimized version that reuses the cached reasoners and axiom weakeners.
-        var weakeners = new HashMap<Set<OWLAxiom>, AxiomWeakener>();
+        // Subsumptions are shared between the weakeners of different reference
+        // ontologies, since most of them will be subsets or supersets of each other.
+        var weakeners = new SingleFlightCache<Set<OWLAxiom>, AxiomWeakener>(Integer.MAX_VALUE);
+        var sharedCaches = new Covers.SharedCaches();
         var refOntologyBase = ontology.cloneWithSeparateCache();
-        return Stream.generate(() -> {
+        var seen = ConcurrentHashMap.<Long>newKeySet();
+        var queue = new ArrayBlockingQueue<Ontology>(MULTIPLE_QUEUE_SIZE);
+        var closed = new AtomicBoolean();
+        var failure = new AtomicReference<Throwable>();
+        var producer = new Thread(() -> {
             try {
-                var refAxioms = Utils.randomChoice(getRefAxioms(ontology));
-                AxiomWeakener axiomWeakener;
-                synchronized (weakeners) {
-                    axiomWeakener = weakeners.computeIfAbsent(refAxioms,
-                            ax -> getWeakener(refOntologyBase.cloneWithRefutable(ax), ontology));
-                }
-                var copy = ontology.clone();
-                if (enhanceRef) {
-                    copy.addStaticAxioms(refAxioms);
+                while (!closed.get()) {
+                    var capacity = queue.remainingCapacity();
+                    if (capacity == 0) {
+                        Thread.sleep(MULTIPLE_POLL_MILLIS);
+                        continue;
+                    }
+                    // Every round adds at most one repair, so the queue can not become full here.
+                    getExecutor().runRounds(capacity, closed::get, i -> {
+                        Ontology copy = null;
+                        try {
+                            var refAxioms = Utils.randomChoice(getRefAxioms(ontology));
+                            var axiomWeakener = weakeners.computeIfAbsent(refAxioms,
+                                    ax -> getWeakener(refOntologyBase.cloneWithRefutable(ax), ontology, sharedCaches));
+                            copy = ontology.clone();
+                            if (enhanceRef) {
+                                copy.addStaticAxioms(refAxioms);
+                            }
+                            weakenUntilRepaired(copy, axiomWeakener);
+                            if (uniqueRepairs && !seen.add(canonicalHash(copy))) {
+                                infoMessage("Found duplicate repair.");
+                            } else {
+                                infoMessage("Found repair.");
+                                queue.add(copy);
+                                copy = null;
+                            }
+                        } catch (OutOfMemoryError e) {
+                            weakeners.clear();
+                            sharedCaches.clear();
+                        } catch (CanceledException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        } catch (Error e) {
+                            failure.compareAndSet(null, e);
+                            closed.set(true);
+                        } finally {
+                            if (copy != null) {
+                                copy.close();
+                            }
+                        }
+                    });
                 }
-                while (!isRepaired(copy)) {
-                    var badAxioms = Utils.toList(findBadAxioms(copy));
-                    infoMessage("Found " + badAxioms.size() + " possible bad axioms.");
-                    var badAxiom = Utils.randomChoice(badAxioms);
-                    infoMessage("Selected the bad axiom " + Utils.prettyPrintAxiom(badAxiom) + ".");
-                    var weakerAxioms = Utils.toList(axiomWeakener.weakerAxioms(badAxiom));
-                    infoMessage("Found " + weakerAxioms.size() + " weaker axioms.");
-                    var weakerAxiom = Utils.randomChoice(weakerAxioms);
-                    infoMessage("Selected the weaker axiom " + Utils.prettyPrintAxiom(weakerAxiom) + ".");
-                    copy.replaceAxiom(badAxiom, weakerAxiom);
+            } catch (InterruptedException | CanceledException e) {
+                // The stream has been closed.
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                closed.set(true);
+            }
+        }, "multiple-repairs");
+        producer.setDaemon(true);
+        producer.start();
+        return Stream.generate(() -> {
+            try {
+                while (true) {
+                    var next = queue.poll(MULTIPLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        return next;
+                    }
+                    var error = failure.get();
+                    if (error instanceof Error e) {
+                        throw e;
+                    } else if (error instanceof RuntimeException e) {
+                        throw e;
+                    } else if (error != null) {
+                        throw new RuntimeException(error);
+                    }
                 }
-                infoMessage("Found repair.");
-                return copy;
-            } catch (OutOfMemoryError e) {
-                weakeners.clear();
-                return null;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return null;
+            } catch (InterruptedException e) {
+                throw new CanceledException();
+            }
+        }).onClose(() -> {
+            closed.set(true);
+            producer.interrupt();
+            try {
+                producer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-        }).filter(onto -> onto != null).onClose(() -> {
+            queue.forEach(Ontology::close);
             refOntologyBase.closeAll();
         });
     }
@@ -0,0 +1,116 @@
+package www.ontologyutils.repair;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import www.ontologyutils.toolbox.Utils;
+
+/**
+ * Periodically writes the state of a long-running repair to a file, such that
+ * the repair can be resumed from that state if it is interrupted. Every
+ * checkpoint replaces the previous one atomically, so that the file always
+ * contains a complete checkpoint even if the process is killed while writing.
+ *
+ * The checkpoint is only valid for resuming the repair of the same ontology,
+ * loaded and normalized in the same way, using the same repair strategy.
+ */
+public class RepairCheckpoint {
+    /**
+     * The state of a repair.
+     *
+     * @param refAxioms
+     *            The axioms of the selected reference ontology.
+     * @param refutableAxioms
+     *            The refutable axioms of the partially repaired ontology, or null
+     *            if there is no such ontology.
+     * @param bestAxioms
+     *            The refutable axioms of the best repair found so far, or null if
+     *            no repair has been found yet.
+     * @param bestQuality
+     *            The quality of the best repair found so far.
+     * @param completed
+     *            The number of completed rounds or repairs.
+     */
+    public static record State(Set<OWLAxiom> refAxioms, Set<OWLAxiom> refutableAxioms, Set<OWLAxiom> bestAxioms,
+            double bestQuality, long completed) implements Serializable {
+    }
+
+    private Path path;
+    private long interval;
+    private long lastSave;
+
+    /**
+     * @param path
+     *            The file to write the checkpoints to.
+     * @param interval
+     *            The minimum number of milliseconds between two checkpoints.
+     */
+    public RepairCheckpoint(String path, long interval) {
+        this.path = Path.of(path);
+        this.interval = interval;
+        this.lastSave = System.nanoTime();
+    }
+
+    /**
+     * @return The state stored in the checkpoint file, or null if there is no
+     *         checkpoint.
+     */
+    public synchronized State load() {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (var input = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return (State) input.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw Utils.panic(e);
+        }
+    }
+
+    /**
+     * Write the given state to the checkpoint file.
+     *
+     * @param state
+     *            The state to write.
+     */
+    public synchronized void save(State state) {
+        var temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (var output = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                output.writeObject(state);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw Utils.panic(e);
+        }
+        lastSave = System.nanoTime();
+    }
+
+    /**
+     * Write the state to the checkpoint file if at least {@code interval}
+     * milliseconds have passed since the last checkpoint. The state is only
+     * computed if it is written.
+     *
+     * @param state
+     *            The supplier of the state to write.
+     */
+    public synchronized void saveIfDue(Supplier<State> state) {
+        if ((System.nanoTime() - lastSave) / 1_000_000 >= interval) {
+            save(state.get());
+        }
+    }
+
+    /**
+     * Remove the checkpoint file, e.g., because the repair has been completed.
+     */
+    public synchronized void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw Utils.panic(e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package www.ontologyutils.repair;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.*;
+
+import www.ontologyutils.toolbox.CanceledException;
+
+/**
+ * A work-stealing executor shared by the parallel repair strategies, such that
+ * running multiple repairs at the same time does not use more threads than the
+ * configured parallelism. Every call to {@code runRounds} is a job that places
+ * at most one task per thread into the queue of the pool. The rounds
+ * themselves are not queued, but claimed one after the other by the tasks of
+ * the job, and the calling thread works on the job as well. A job is canceled
+ * by interrupting all threads currently working on it, which makes their next
+ * reasoner call throw a {@code CanceledException}.
+ */
+public class RepairExecutor {
+    private static RepairExecutor defaultExecutor;
+    private static ScheduledExecutorService monitor;
+
+    /**
+     * The state of a single call to {@code runRounds}.
+     */
+    private static class Job {
+        private LongConsumer round;
+        private BooleanSupplier stop;
+        private long rounds;
+        private AtomicLong started;
+        private Set<Thread> working;
+        private volatile boolean canceled;
+
+        public Job(long rounds, BooleanSupplier stop, LongConsumer round) {
+            this.round = round;
+            this.stop = stop;
+            this.rounds = rounds;
+            this.started = new AtomicLong();
+            this.working = new HashSet<>();
+        }
+
+        private long claimRound() {
+            if (canceled || stop.getAsBoolean()) {
+                return -1;
+            }
+            var index = started.getAndIncrement();
+            return index < rounds ? index : -1;
+        }
+
+        /**
+         * Run rounds until there are no more rounds or the job is canceled.
+         *
+         * @return True iff the thread was interrupted from outside of this job.
+         */
+        public boolean work() {
+            var thread = Thread.currentThread();
+            synchronized (this) {
+                if (canceled) {
+                    return false;
+                }
+                working.add(thread);
+            }
+            var interrupted = false;
+            try {
+                for (var index = claimRound(); index >= 0; index = claimRound()) {
+                    round.accept(index);
+                }
+            } catch (CanceledException e) {
+                interrupted = !canceled;
+            } finally {
+                synchronized (this) {
+                    working.remove(thread);
+                    // Clear an interrupt caused by cancellation, so it does not affect the next job.
+                    if (canceled) {
+                        Thread.interrupted();
+                    }
+                    notifyAll();
+                }
+            }
+            return interrupted;
+        }
+
+        public synchronized void cancel() {
+            if (!canceled) {
+                canceled = true;
+                for (var thread : working) {
+                    thread.interrupt();
+                }
+            }
+        }
+
+        public void checkStop() {
+            if (stop.getAsBoolean()) {
+                cancel();
+            }
+        }
+
+        /**
+         * Wait until no thread is working on this job anymore. Tasks that have not
+         * started yet will not run any rounds.
+         */
+        public synchronized void await() {
+            canceled = true;
+            while (!working.isEmpty()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    cancel();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private ForkJoinPool pool;
+    private int parallelism;
+
+    /**
+     * @param parallelism
+     *            The maximum number of threads working on repairs at the same
+     *            time.
+     */
+    public RepairExecutor(int parallelism) {
+        this.parallelism = parallelism;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @return The executor used by all repairs for which no executor has been
+     *         set. By default, it uses one thread per available processor.
+     */
+    public static synchronized RepairExecutor getDefault() {
+        if (defaultExecutor == null) {
+            defaultExecutor = new RepairExecutor(Runtime.getRuntime().availableProcessors());
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * @param executor
+     *            The executor to use for all repairs for which no executor has
+     *            been set.
+     */
+    public static synchronized void setDefault(RepairExecutor executor) {
+        defaultExecutor = executor;
+    }
+
+    private static synchronized ScheduledExecutorService getMonitor() {
+        if (monitor == null) {
+            monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "repair-budget-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return monitor;
+    }
+
+    /**
+     * @return The number of threads of this executor.
+     */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Run {@code round} for all indices from 0 to {@code rounds - 1} in parallel,
+     * or until {@code stop} returns true. Rounds that are still running once
+     * {@code stop} returns true are interrupted, and rounds that fail with a
+     * {@code CanceledException} because of this are ignored. This method returns
+     * only once no thread is working on any round anymore.
+     *
+     * @param rounds
+     *            The number of rounds to run.
+     * @param stop
+     *            The condition for stopping early. It is checked before every
+     *            round and periodically while rounds are running.
+     * @param round
+     *            The action to perform in each round, given the index of the
+     *            round.
+     */
+    public void runRounds(long rounds, BooleanSupplier stop, LongConsumer round) {
+        var job = new Job(rounds, stop, round);
+        var tasks = (int) Math.min(parallelism, rounds) - 1;
+        for (int i = 0; i < tasks; i++) {
+            pool.execute(() -> job.work());
+        }
+        var check = getMonitor().scheduleWithFixedDelay(job::checkStop, 10, 10, TimeUnit.MILLISECONDS);
+        try {
+            var interrupted = job.work();
+            if (interrupted) {
+                job.cancel();
+            }
+            job.await();
+            if (interrupted || Thread.interrupted()) {
+                throw new CanceledException();
+            }
+        } finally {
+            check.cancel(false);
+            job.cancel();
+        }
+    }
+
+    /**
+     * Run {@code round} for all indices from 0 to {@code rounds - 1} in parallel.
+     *
+     * @param rounds
+     *            The number of rounds to run.
+     * @param round
+     *            The action to perform in each round, given the index of the
+     *            round.
+     */
+    public void runRounds(long rounds, LongConsumer round) {
+        runRounds(rounds, () -> false, round);
+    }
+}
@@ -0,0 +1,129 @@
+package www.ontologyutils.repair;
+
+import java.util.*;
+import java.util.function.*;
+
+import org.semanticweb.owlapi.model.*;
+
+import www.ontologyutils.toolbox.*;
+
+/**
+ * Computes the number of inferred taxonomy axioms of a repair, i.e., the value
+ * of {@code repair.inferredTaxonomyAxioms().count()}, while reusing the
+ * taxonomies of the original ontology and of a reference ontology. This is
+ * only valid for repairs that are entailed by the original ontology, as is the
+ * case for all repairs obtained by removing or weakening axioms.
+ *
+ * Weakening only removes entailments, so if the original ontology is
+ * consistent, a repair entails no subsumption that is not entailed by the
+ * original ontology. If a repair contains all logical axioms of the reference
+ * ontology, it entails all subsumptions entailed by the reference ontology.
+ * Further, if the bottom-locality module of a concept name in the repair is
+ * contained in the reference ontology, none of the replaced axioms can affect
+ * the subsumers of that concept, and they are taken from the reference
+ * ontology. Only the remaining subsumptions are checked using the reasoner.
+ */
+public class TaxonomyQuality implements Function<Ontology, Double> {
+    private Set<OWLClassExpression> domain;
+    private SubClassCache upperBound;
+    private Set<OWLAxiom> referenceAxioms;
+    private SubClassCache lowerBound;
+
+    /**
+     * @param original
+     *            The ontology from which all repairs are derived.
+     * @param reference
+     *            The reference ontology used for the repairs. May be null.
+     */
+    public TaxonomyQuality(Ontology original, Ontology reference) {
+        this.domain = Utils.toSet(original.conceptsInSignature());
+        if (original.isConsistent()) {
+            this.upperBound = taxonomy(original, domain);
+        }
+        if (reference != null && reference.isConsistent()) {
+            this.referenceAxioms = Utils.toSet(reference.logicalAxioms());
+            this.lowerBound = taxonomy(reference, domain);
+        }
+    }
+
+    /**
+     * @param original
+     *            The ontology from which all repairs are derived.
+     */
+    public TaxonomyQuality(Ontology original) {
+        this(original, null);
+    }
+
+    /**
+     * @param ontology
+     *            The ontology to compute the taxonomy of.
+     * @param concepts
+     *            The concepts to include in the taxonomy.
+     * @return A cache in which all subsumptions between {@code concepts} are
+     *         known.
+     */
+    private static SubClassCache taxonomy(Ontology ontology, Set<OWLClassExpression> concepts) {
+        var cache = new SubClassCache(concepts);
+        for (var subClass : concepts) {
+            for (var superClass : concepts) {
+                cache.computeIfAbsent(subClass, superClass, ontology::isSubClass);
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @param repair
+     *            The repair containing all reference axioms.
+     * @param concepts
+     *            The concepts in the signature of {@code repair}.
+     * @return The concepts for which all subsumers are the same in the reference
+     *         ontology and in {@code repair}.
+     */
+    private Set<OWLClassExpression> unaffectedConcepts(Ontology repair, Set<OWLClassExpression> concepts) {
+        var unaffected = new HashSet<OWLClassExpression>();
+        var modules = repair.bottomModuleExtractor();
+        for (var concept : concepts) {
+            if (concept.isOWLClass() && !concept.isOWLThing() && !concept.isOWLNothing()
+                    && domain.contains(concept)) {
+                var module = modules.apply(Set.of(concept.asOWLClass()));
+                if (module.stream().allMatch(axiom -> !axiom.isLogicalAxiom() || referenceAxioms.contains(axiom))) {
+                    unaffected.add(concept);
+                }
+            }
+        }
+        return unaffected;
+    }
+
+    @Override
+    public Double apply(Ontology repair) {
+        Set<OWLClassExpression> concepts = Utils.toSet(repair.conceptsInSignature());
+        var cache = new SubClassCache(concepts);
+        Set<OWLClassExpression> unaffected;
+        if (lowerBound != null && Utils.toSet(repair.logicalAxioms()).containsAll(referenceAxioms)) {
+            lowerBound.copyKnownSuccessorsTo(cache);
+            unaffected = unaffectedConcepts(repair, concepts);
+        } else {
+            unaffected = Set.of();
+        }
+        BiPredicate<OWLClassExpression, OWLClassExpression> isSubClass = (subClass, superClass) -> {
+            var inDomain = domain.contains(subClass) && domain.contains(superClass);
+            if (inDomain && unaffected.contains(subClass)) {
+                return lowerBound.isKnownSuccessor(subClass, superClass);
+            } else if (inDomain && upperBound != null && !upperBound.isKnownSuccessor(subClass, superClass)) {
+                return false;
+            } else {
+                return repair.isSubClass(subClass, superClass);
+            }
+        };
+        var count = 0L;
+        for (var subClass : concepts) {
+            for (var superClass : concepts) {
+                if (cache.computeIfAbsent(subClass, superClass, isSubClass)) {
+                    count += 1;
+                }
+            }
+        }
+        return (double) count;
+    }
+}
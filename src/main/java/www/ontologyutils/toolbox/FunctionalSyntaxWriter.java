@@ -0,0 +1,131 @@
+package www.ontologyutils.toolbox;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.functional.renderer.FunctionalSyntaxObjectRenderer;
+import org.semanticweb.owlapi.model.*;
+
+/**
+ * Writes an ontology in OWL functional syntax one axiom at a time, without
+ * building an {@code OWLOntology} containing all axioms first. Only the
+ * signature of the written axioms is kept in memory, so that declarations for
+ * the used entities can be written at the end. Axioms are not deduplicated, but
+ * the parser will ignore repeated axioms when loading the file.
+ *
+ * All methods are synchronized, such that axioms may be written from multiple
+ * threads.
+ */
+public class FunctionalSyntaxWriter implements AutoCloseable {
+    private Writer writer;
+    private FunctionalSyntaxObjectRenderer renderer;
+    private Set<OWLEntity> signature;
+    private Set<OWLEntity> declared;
+    private long written;
+
+    /**
+     * @param writer
+     *            The writer to write the ontology to. It will be closed by
+     *            {@code close}.
+     * @param ontologyIri
+     *            The IRI of the written ontology. May be null.
+     */
+    public FunctionalSyntaxWriter(Writer writer, IRI ontologyIri) {
+        this.writer = writer;
+        this.signature = new HashSet<>();
+        this.declared = new HashSet<>();
+        try {
+            // The renderer only uses the ontology for looking up prefixes and labels.
+            var empty = OWLManager.createOWLOntologyManager().createOntology();
+            this.renderer = new FunctionalSyntaxObjectRenderer(empty, writer);
+            writer.write("Ontology(");
+            if (ontologyIri != null) {
+                writer.write("<" + ontologyIri + ">");
+            }
+            writer.write("\n");
+        } catch (IOException | OWLOntologyCreationException e) {
+            throw Utils.panic(e);
+        }
+    }
+
+    /**
+     * @param filePath
+     *            The file to write the ontology to.
+     * @param ontologyIri
+     *            The IRI of the written ontology. May be null.
+     */
+    public FunctionalSyntaxWriter(String filePath, IRI ontologyIri) {
+        this(newFileWriter(filePath), ontologyIri);
+    }
+
+    private static Writer newFileWriter(String filePath) {
+        try {
+            return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filePath), StandardCharsets.UTF_8));
+        } catch (FileNotFoundException e) {
+            throw Utils.panic(e);
+        }
+    }
+
+    /**
+     * @param axiom
+     *            The axiom to write.
+     */
+    public synchronized void writeAxiom(OWLAxiom axiom) {
+        if (axiom instanceof OWLDeclarationAxiom declaration) {
+            declared.add(declaration.getEntity());
+        } else {
+            axiom.signature().forEach(signature::add);
+        }
+        axiom.accept(renderer);
+        try {
+            writer.write("\n");
+        } catch (IOException e) {
+            throw Utils.panic(e);
+        }
+        written += 1;
+    }
+
+    /**
+     * @param axioms
+     *            The axioms to write.
+     */
+    public synchronized void writeAxioms(Collection<? extends OWLAxiom> axioms) {
+        for (var axiom : axioms) {
+            writeAxiom(axiom);
+        }
+    }
+
+    /**
+     * Write declaration axioms for all classes, object properties, and named
+     * individuals that appeared in written axioms but have not been declared.
+     * Built-in entities are never declared.
+     */
+    public synchronized void writeMissingDeclarations() {
+        var df = Ontology.getDefaultDataFactory();
+        for (var entity : Utils.toList(signature.stream())) {
+            if ((entity.isOWLClass() || entity.isOWLObjectProperty() || entity.isOWLNamedIndividual())
+                    && !entity.isBuiltIn() && !declared.contains(entity)) {
+                writeAxiom(df.getOWLDeclarationAxiom(entity));
+            }
+        }
+    }
+
+    /**
+     * @return The number of axioms written so far.
+     */
+    public synchronized long writtenAxioms() {
+        return written;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.write(")\n");
+            writer.close();
+        } catch (IOException e) {
+            throw Utils.panic(e);
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package www.ontologyutils.toolbox;
 
+import java.lang.invoke.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 /**
- * Implementation of monte carlo tree search.
+ * Implementation of monte carlo tree search. Simulations may be run from
+ * multiple threads on the same tree. Node statistics are updated without
+ * locking, using atomic operations on the individual fields, and virtual loss
+ * is used to spread concurrent simulations over different paths.
  */
 public class Mcts<M> implements AutoCloseable {
     /**
@@ -42,90 +47,145 @@ public class Mcts<M> implements AutoCloseable {
          */
         public double terminalValue();
 
+        /**
+         * States with equal keys share a single node in the search tree, so that
+         * their statistics and possible moves are computed only once. Equal keys
+         * must therefore only be returned for states that have the same possible
+         * moves and lead to the same values.
+         *
+         * @return A key identifying the current state, or null if the state should
+         *         not be shared with other states.
+         */
+        public default Object stateKey() {
+            return null;
+        }
+
         @Override
         public void close();
     }
 
+    /**
+     * Visit count and value sum of a node or move. Both are updated atomically,
+     * but not together, so a reader may briefly see a visit without its value.
+     */
     private class NodeStats {
-        public int visitCount;
-        public double valueSum;
+        public volatile int visitCount;
+        public volatile double valueSum;
 
-        public synchronized double getValue() {
-            if (visitCount != 0) {
-                return valueSum / visitCount;
+        public double getValue() {
+            var count = visitCount;
+            if (count != 0) {
+                return valueSum / count;
             } else {
                 return 0;
             }
         }
 
-        public synchronized void addVirtualLoss() {
-            visitCount += virtualLoss;
+        public void addVirtualLoss() {
+            VISIT_COUNT.getAndAdd(this, virtualLoss);
         }
 
-        public synchronized void removeVirtualLoss() {
-            visitCount -= virtualLoss;
+        public void removeVirtualLoss() {
+            VISIT_COUNT.getAndAdd(this, -virtualLoss);
         }
 
-        public synchronized void addVisit(double value) {
-            visitCount += 1;
-            valueSum += value;
+        public void addVisit(double value) {
+            var old = valueSum;
+            while (!VALUE_SUM.weakCompareAndSet(this, old, old + value)) {
+                old = valueSum;
+            }
+            VISIT_COUNT.getAndAdd(this, 1);
         }
 
-        public synchronized double getScaledValue() {
-            if (minValue < maxValue) {
-                return (getValue() - minValue) / (maxValue - minValue);
+        public double getScaledValue() {
+            var min = minValue;
+            var max = maxValue;
+            if (min < max) {
+                return (getValue() - min) / (max - min);
             } else {
                 return 0;
             }
         }
     }
 
+    /**
+     * A node of the search tree. The children are published only once, by a
+     * single compare-and-set, and never modified afterwards. While one thread
+     * computes the children, the node is marked with {@code expanding} and other
+     * threads treat it as a leaf.
+     */
     private class Node extends NodeStats {
-        public boolean complete = false;
-        public Map<M, Node> children;
+        public volatile boolean complete = false;
+        public volatile Map<M, Node> children;
+        public volatile Node transposition;
+
+        /**
+         * @return The node sharing the statistics of this node, or this node if it
+         *         has not been looked up in the transposition table yet.
+         */
+        public Node resolved() {
+            var shared = transposition;
+            return shared != null ? shared : this;
+        }
 
-        public synchronized boolean isExpanded() {
-            return children != null && !children.isEmpty();
+        public boolean isExpanded() {
+            var current = children;
+            return current != null && current != expanding && !current.isEmpty();
         }
 
-        public synchronized void expand(Supplier<Stream<M>> moves) {
-            if (visitCount >= expThreshold) {
+        public void expand(Supplier<Stream<M>> moves) {
+            if (visitCount >= expThreshold && children == null) {
                 expand(moves.get());
             }
         }
 
-        public synchronized void expand(Stream<M> moves) {
-            if (!isExpanded()) {
-                children = new HashMap<>();
-                moves.forEach(move -> {
-                    children.put(move, new Node());
-                });
+        public void expand(Stream<M> moves) {
+            var current = children;
+            if (current == null || (current != expanding && current.isEmpty())) {
+                if (CHILDREN.compareAndSet(this, current, expanding)) {
+                    var newChildren = new LinkedHashMap<M, Node>();
+                    try {
+                        moves.forEach(move -> {
+                            newChildren.put(move, new Node());
+                        });
+                    } catch (RuntimeException | Error e) {
+                        children = current;
+                        throw e;
+                    }
+                    children = Collections.unmodifiableMap(newChildren);
+                }
             }
         }
 
-        public synchronized void computeCompete() {
-            complete = true;
-            for (var child : children.values()) {
-                if (!child.complete) {
-                    complete = false;
+        public void computeCompete() {
+            var current = children;
+            if (current == null || current == expanding) {
+                return;
+            }
+            for (var child : current.values()) {
+                if (!child.resolved().complete) {
+                    return;
                 }
             }
+            complete = true;
         }
 
-        public synchronized double raveContribution(M move, Node child) {
+        public double raveContribution(M move, Node child) {
             if (useRave()) {
                 var moveStats = getMoveStats(move);
-                return ((double) moveStats.visitCount) / ((double) child.visitCount + (double) moveStats.visitCount
-                        + 4 * raveBalance * raveBalance * (double) child.visitCount * (double) moveStats.visitCount);
+                double childCount = child.visitCount;
+                double moveCount = moveStats.visitCount;
+                return moveCount / (childCount + moveCount
+                        + 4 * raveBalance * raveBalance * childCount * moveCount);
             } else {
                 return 0;
             }
         }
 
-        public synchronized double getUcbScore(M move, Node child) {
+        public double getUcbScore(int parentCount, M move, Node child) {
             double countScore = expConstant;
-            if (visitCount != 0) {
-                countScore *= Math.sqrt(Math.log(visitCount) / child.visitCount);
+            if (parentCount != 0) {
+                countScore *= Math.sqrt(Math.log(parentCount) / child.visitCount);
             }
             double valueScore = child.getScaledValue();
             if (useRave()) {
@@ -137,12 +197,46 @@ public class Mcts<M> implements AutoCloseable {
             return countScore + valueScore;
         }
 
-        public synchronized Map.Entry<M, Node> selectChild() {
-            return children.entrySet().stream()
-                    .filter(e -> !skipComplete || !e.getValue().complete)
-                    .max(Comparator.comparingDouble(
-                            e -> getUcbScore(e.getKey(), e.getValue())))
-                    .orElse(null);
+        public Map.Entry<M, Node> selectChild() {
+            var current = children;
+            if (current == null || current == expanding) {
+                return null;
+            }
+            var parentCount = visitCount;
+            Map.Entry<M, Node> best = null;
+            var bestScore = Double.NEGATIVE_INFINITY;
+            for (var entry : current.entrySet()) {
+                var child = entry.getValue().resolved();
+                if (!skipComplete || !child.complete) {
+                    var score = getUcbScore(parentCount, entry.getKey(), child);
+                    if (best == null || score > bestScore) {
+                        best = entry;
+                        bestScore = score;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final VarHandle VISIT_COUNT;
+    private static final VarHandle VALUE_SUM;
+    private static final VarHandle CHILDREN;
+    private static final VarHandle TRANSPOSITION;
+    private static final VarHandle MIN_VALUE;
+    private static final VarHandle MAX_VALUE;
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            VISIT_COUNT = lookup.findVarHandle(Mcts.NodeStats.class, "visitCount", int.class);
+            VALUE_SUM = lookup.findVarHandle(Mcts.NodeStats.class, "valueSum", double.class);
+            CHILDREN = lookup.findVarHandle(Mcts.Node.class, "children", Map.class);
+            TRANSPOSITION = lookup.findVarHandle(Mcts.Node.class, "transposition", Mcts.Node.class);
+            MIN_VALUE = lookup.findVarHandle(Mcts.class, "minValue", double.class);
+            MAX_VALUE = lookup.findVarHandle(Mcts.class, "maxValue", double.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
         }
     }
 
@@ -153,10 +247,12 @@ public class Mcts<M> implements AutoCloseable {
     private boolean skipComplete;
 
     private Game<M> game;
-    private Node root;
+    private volatile Node root;
     private Map<M, NodeStats> moves;
-    private double minValue;
-    private double maxValue;
+    private Map<Object, Node> transpositions;
+    private Map<M, Node> expanding;
+    private volatile double minValue;
+    private volatile double maxValue;
 
     /**
      * @param game
@@ -182,9 +278,11 @@ public class Mcts<M> implements AutoCloseable {
         this.expThreshold = expThreshold;
         this.raveBalance = raveBalance;
         this.game = game;
-        this.root = new Node();
+        this.expanding = new HashMap<>();
+        this.moves = new ConcurrentHashMap<>();
+        this.transpositions = new ConcurrentHashMap<>();
+        this.root = lookupTransposition(new Node(), game);
         this.root.expand(game.possibleMoves());
-        this.moves = new HashMap<>();
         this.minValue = Double.POSITIVE_INFINITY;
         this.maxValue = Double.NEGATIVE_INFINITY;
         this.virtualLoss = virtualLoss;
@@ -203,10 +301,40 @@ public class Mcts<M> implements AutoCloseable {
         return !Double.isNaN(raveBalance);
     }
 
-    private synchronized NodeStats getMoveStats(M move) {
+    private NodeStats getMoveStats(M move) {
         return moves.computeIfAbsent(move, m -> new NodeStats());
     }
 
+    /**
+     * Find the node that is shared by all states equal to the current state of
+     * {@code game}. The result of the first lookup for {@code node} is remembered,
+     * such that the state key is computed only once per node.
+     *
+     * @param node
+     *            The node reached by the last move of {@code game}.
+     * @param game
+     *            The game in the state corresponding to {@code node}.
+     * @return The node that should be used in place of {@code node}.
+     */
+    private Node lookupTransposition(Node node, Game<M> game) {
+        var shared = node.transposition;
+        if (shared == null) {
+            var key = game.stateKey();
+            shared = key == null ? node : transpositions.computeIfAbsent(key, k -> node);
+            if (!TRANSPOSITION.compareAndSet(node, null, shared)) {
+                shared = node.transposition;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * @return The number of distinct states in the transposition table.
+     */
+    public int transpositionCount() {
+        return transpositions.size();
+    }
+
     private double rollout(Game<M> game) {
         while (!game.isTerminal()) {
             game.performMove(Utils.randomChoice(game.possibleMoves()));
@@ -214,12 +342,19 @@ public class Mcts<M> implements AutoCloseable {
         return game.terminalValue();
     }
 
-    private void backpropagate(List<Map.Entry<M, Node>> steps, double value) {
-        if (value < minValue) {
-            minValue = value;
-        } else if (value > maxValue) {
-            maxValue = value;
+    private void updateBounds(double value) {
+        var min = minValue;
+        while (value < min && !MIN_VALUE.weakCompareAndSet(this, min, value)) {
+            min = minValue;
+        }
+        var max = maxValue;
+        while (value > max && !MAX_VALUE.weakCompareAndSet(this, max, value)) {
+            max = maxValue;
         }
+    }
+
+    private void backpropagate(Node root, List<Map.Entry<M, Node>> steps, double value) {
+        updateBounds(value);
         Collections.reverse(steps);
         for (var step : steps) {
             if (useRave()) {
@@ -240,20 +375,29 @@ public class Mcts<M> implements AutoCloseable {
     public void runSimulation() {
         try (var searchGame = game.copy()) {
             var searchPath = new ArrayList<Map.Entry<M, Node>>();
-            var node = root;
+            var searchRoot = root;
+            var node = searchRoot;
             while (node.isExpanded()) {
                 var actionNode = node.selectChild();
                 if (actionNode == null) {
+                    for (var step : searchPath) {
+                        step.getValue().removeVirtualLoss();
+                    }
                     return;
                 }
-                node = actionNode.getValue();
-                node.addVirtualLoss();
                 searchGame.performMove(actionNode.getKey());
-                searchPath.add(actionNode);
+                var child = lookupTransposition(actionNode.getValue(), searchGame);
+                if (child == searchRoot || searchPath.stream().anyMatch(step -> step.getValue() == child)) {
+                    // The state repeats a state on the current path. Stop here to avoid cycles.
+                    break;
+                }
+                node = child;
+                node.addVirtualLoss();
+                searchPath.add(Map.entry(actionNode.getKey(), node));
             }
             node.expand(() -> searchGame.possibleMoves());
             var value = rollout(searchGame);
-            backpropagate(searchPath, value);
+            backpropagate(searchRoot, searchPath, value);
         }
     }
 
@@ -265,7 +409,7 @@ public class Mcts<M> implements AutoCloseable {
      */
     public synchronized void performMove(M move) {
         game.performMove(move);
-        root = root.children.get(move);
+        root = lookupTransposition(root.children.get(move), game);
         root.expand(game.possibleMoves());
     }
 
@@ -275,7 +419,7 @@ public class Mcts<M> implements AutoCloseable {
     public synchronized Map<M, Integer> getRootCounts() {
         var result = new HashMap<M, Integer>();
         root.children.forEach((move, node) -> {
-            result.put(move, node.visitCount);
+            result.put(move, node.resolved().visitCount);
         });
         return result;
     }
@@ -286,7 +430,7 @@ public class Mcts<M> implements AutoCloseable {
     public synchronized Map<M, Double> getRootValues() {
         var result = new HashMap<M, Double>();
         root.children.forEach((move, node) -> {
-            result.put(move, node.getValue());
+            result.put(move, node.resolved().getValue());
         });
         return result;
     }
@@ -0,0 +1,141 @@
+package www.ontologyutils.toolbox;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Shares the information of multiple {@code PreorderCache} objects, for
+ * preorders that are monotone in a set of keys. This is for example the case
+ * for the subsumption relation, where the keys are the axioms of the
+ * ontology. Anything entailed by a subset of the axioms is also entailed by a
+ * superset, and anything not entailed by a superset is also not entailed by any
+ * subset.
+ *
+ * The caches are indexed using a {@code MapOfSets}, such that for a new set of
+ * keys all caches for subsets and supersets can be found quickly.
+ */
+public class MonotonePreorderCache<K extends Comparable<? super K>, T> {
+    private MapOfSets<K, PreorderCache<T>> caches;
+    private int version;
+
+    /**
+     * Create a new empty collection of caches.
+     */
+    public MonotonePreorderCache() {
+        caches = new MapOfSets<>();
+        version = 0;
+    }
+
+    /**
+     * @param key
+     *            The set of keys for which to find the caches.
+     * @return All caches that are registered with a strict subset of {@code key}.
+     */
+    private synchronized List<PreorderCache<T>> subsetCaches(Set<K> key) {
+        return Utils.toList(caches.entrySetForSubsets(key).stream()
+                .filter(entry -> entry.getKey().size() < key.size())
+                .map(entry -> entry.getValue()));
+    }
+
+    /**
+     * @param key
+     *            The set of keys for which to find the caches.
+     * @return All caches that are registered with a strict superset of
+     *         {@code key}.
+     */
+    private synchronized List<PreorderCache<T>> supersetCaches(Set<K> key) {
+        return Utils.toList(caches.entrySetForSupersets(key).stream()
+                .filter(entry -> entry.getKey().size() > key.size())
+                .map(entry -> entry.getValue()));
+    }
+
+    /**
+     * Get the cache for the preorder defined by {@code key}. If no cache exists
+     * for the exact set {@code key}, a new one is created using {@code create}.
+     * The new cache will be initialized with all the known successors of the
+     * caches for subsets of {@code key}.
+     *
+     * @param key
+     *            The set of keys the preorder is defined by.
+     * @param create
+     *            The function used to create a new empty cache.
+     * @return The cache for the preorder over {@code key}.
+     */
+    public PreorderCache<T> getCache(Set<K> key, Supplier<? extends PreorderCache<T>> create) {
+        PreorderCache<T> cache;
+        synchronized (this) {
+            cache = caches.get(key);
+            if (cache != null) {
+                return cache;
+            }
+            cache = create.get();
+            caches.put(Set.copyOf(key), cache);
+            version += 1;
+        }
+        for (var other : subsetCaches(key)) {
+            other.copyKnownSuccessorsTo(cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Wrap the preorder {@code order}, that is defined by the set {@code key},
+     * such that before calling {@code order} the caches of all subsets and
+     * supersets of {@code key} are consulted.
+     *
+     * @param key
+     *            The set of keys the preorder is defined by.
+     * @param order
+     *            The preorder to wrap.
+     * @return The wrapped preorder.
+     */
+    public BiPredicate<T, T> wrapPreorder(Set<K> key, BiPredicate<T, T> order) {
+        var keyCopy = Set.copyOf(key);
+        var related = new Object() {
+            int version = -1;
+            List<PreorderCache<T>> subsets;
+            List<PreorderCache<T>> supersets;
+        };
+        return (pred, succ) -> {
+            List<PreorderCache<T>> subsets;
+            List<PreorderCache<T>> supersets;
+            synchronized (related) {
+                synchronized (this) {
+                    if (related.version != version) {
+                        related.version = version;
+                        related.subsets = subsetCaches(keyCopy);
+                        related.supersets = supersetCaches(keyCopy);
+                    }
+                }
+                subsets = related.subsets;
+                supersets = related.supersets;
+            }
+            for (var cache : subsets) {
+                if (cache.isKnownSuccessor(pred, succ)) {
+                    return true;
+                }
+            }
+            for (var cache : supersets) {
+                if (!cache.isPossibleSuccessor(pred, succ)) {
+                    return false;
+                }
+            }
+            return order.test(pred, succ);
+        };
+    }
+
+    /**
+     * @return The number of caches currently known.
+     */
+    public synchronized int size() {
+        return caches.size();
+    }
+
+    /**
+     * Remove all caches.
+     */
+    public synchronized void clear() {
+        caches.clear();
+        version += 1;
+    }
+}
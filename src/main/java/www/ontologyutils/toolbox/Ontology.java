@@ -15,6 +15,7 @@ import org.semanticweb.owlapi.util.*;
 import openllet.owlapi.OpenlletReasonerFactory;
 import uk.ac.manchester.cs.factplusplus.owlapi.FaCTPlusPlusReasonerFactory;
 import uk.ac.manchester.cs.jfact.JFactFactory;
+import uk.ac.manchester.cs.owlapi.modularity.*;
 
 /**
  * This class represents an ontology and is used for ontologies in this package.
@@ -111,7 +112,10 @@ public class Ontology implements AutoCloseable {
          */
         public OWLReasoner getNewOwlReasoner(Ontology ontology) {
             try {
-                var owlOntology = defaultManager.createOntology();
+                // Every reasoner gets its own manager. Some reasoners (e.g., JFact) listen to the
+                // changes of all ontologies in the manager, and would otherwise apply changes made
+                // to the ontologies of other reasoners on the next flush.
+                var owlOntology = OWLManager.createOWLOntologyManager().createOntology();
                 owlOntology.addAxioms(ontology.axioms());
                 return reasonerFactory.createReasoner(owlOntology);
             } catch (OWLOntologyCreationException e) {
@@ -199,12 +203,96 @@ public class Ontology implements AutoCloseable {
                 }
             }
         }
+
+        /**
+         * Use a new reasoner for executing the given action, and dispose of it
+         * afterwards instead of returning it to the cache. This is used for actions
+         * that change the internal state of the reasoner (e.g., precomputing the
+         * class hierarchy), which some reasoners do not update correctly when the
+         * reasoner is later reused for another ontology.
+         *
+         * @param <T>
+         *            The return value of the action to be performed.
+         * @param ontology
+         *            The ontology on which to create the reasoner.
+         * @param action
+         *            The action to perform with the reasoner.
+         * @return The value returned by {@code action}.
+         */
+        public <T> T withNewReasonerDo(Ontology ontology, Function<OWLReasoner, T> action) {
+            if (Thread.interrupted()) {
+                throw new CanceledException();
+            }
+            var reasoner = getNewOwlReasoner(ontology);
+            synchronized (this) {
+                reasonerCalls += 1;
+            }
+            try {
+                return action.apply(reasoner);
+            } finally {
+                actuallyDisposeOwlReasoner(reasoner);
+            }
+        }
+    }
+
+    /**
+     * Reference counts of the subconcepts and entities used in the axioms of an
+     * ontology. Every axiom contributes at most one to the count of each element,
+     * so that an element can be removed once its count drops to zero.
+     */
+    private static class AxiomIndex {
+        private Map<OWLClassExpression, Integer> subConcepts = new HashMap<>();
+        private Map<OWLClassExpression, Integer> subConceptsOfTbox = new HashMap<>();
+        private Map<OWLEntity, Integer> signature = new HashMap<>();
+        private Map<OWLClass, Integer> concepts = new HashMap<>();
+        private Map<OWLObjectProperty, Integer> roles = new HashMap<>();
+
+        private static <T> void increment(Map<T, Integer> counts, Stream<? extends T> elements) {
+            elements.distinct().forEach(element -> counts.merge(element, 1, Integer::sum));
+        }
+
+        private static <T> void decrement(Map<T, Integer> counts, Stream<? extends T> elements) {
+            elements.distinct().forEach(element -> counts.computeIfPresent(element, (e, c) -> c > 1 ? c - 1 : null));
+        }
+
+        public void add(OWLAxiom axiom) {
+            increment(subConcepts, axiom.nestedClassExpressions());
+            if (axiom.isOfType(AxiomType.TBoxAxiomTypes)) {
+                increment(subConceptsOfTbox, axiom.nestedClassExpressions());
+            }
+            increment(signature, axiom.signature());
+            increment(concepts, axiom.classesInSignature());
+            increment(roles, axiom.objectPropertiesInSignature());
+        }
+
+        public void remove(OWLAxiom axiom) {
+            decrement(subConcepts, axiom.nestedClassExpressions());
+            if (axiom.isOfType(AxiomType.TBoxAxiomTypes)) {
+                decrement(subConceptsOfTbox, axiom.nestedClassExpressions());
+            }
+            decrement(signature, axiom.signature());
+            decrement(concepts, axiom.classesInSignature());
+            decrement(roles, axiom.objectPropertiesInSignature());
+        }
+
+        /**
+         * @param <T>
+         *            The type of element.
+         * @param counts
+         *            The counts to read.
+         * @return A stream over a snapshot of the elements with non-zero count.
+         */
+        public static <T> Stream<T> elements(Map<T, Integer> counts) {
+            return List.copyOf(counts.keySet()).stream();
+        }
     }
 
     private Set<OWLAxiom> staticAxioms;
     private Set<OWLAxiom> refutableAxioms;
     private ReasonerCache reasonerCache;
     private boolean changed;
+    private AxiomIndex index;
+    private List<OWLObjectPropertyExpression> nonSimpleRoles;
 
     /**
      * Create a new ontology around the given static and refutable axioms. Should
@@ -534,6 +622,53 @@ public class Ontology implements AutoCloseable {
         return axioms().filter(axiom -> axiom.isOfType(AxiomType.RBoxAxiomTypes));
     }
 
+    /**
+     * The index is only built on the first access, and is then updated on every
+     * change of the axioms.
+     *
+     * @return The index of subconcepts and entities of this ontology.
+     */
+    private synchronized AxiomIndex index() {
+        if (index == null) {
+            var newIndex = new AxiomIndex();
+            axioms().forEach(newIndex::add);
+            index = newIndex;
+        }
+        return index;
+    }
+
+    /**
+     * Must be called whenever {@code axiom} was not in this ontology before, but is
+     * now.
+     *
+     * @param axiom
+     *            The added axiom.
+     */
+    private synchronized void indexAdded(OWLAxiom axiom) {
+        if (index != null) {
+            index.add(axiom);
+        }
+        if (axiom.isOfType(AxiomType.RBoxAxiomTypes)) {
+            nonSimpleRoles = null;
+        }
+    }
+
+    /**
+     * Must be called whenever {@code axiom} was in this ontology before, but is no
+     * longer.
+     *
+     * @param axiom
+     *            The removed axiom.
+     */
+    private synchronized void indexRemoved(OWLAxiom axiom) {
+        if (index != null) {
+            index.remove(axiom);
+        }
+        if (axiom.isOfType(AxiomType.RBoxAxiomTypes)) {
+            nonSimpleRoles = null;
+        }
+    }
+
     /**
      * @param axioms
      *            The axioms to remove.
@@ -541,8 +676,9 @@ public class Ontology implements AutoCloseable {
     public void removeAxioms(Stream<? extends OWLAxiom> axioms) {
         changed = true;
         axioms.forEach(axiom -> {
-            staticAxioms.remove(axiom);
-            refutableAxioms.remove(axiom);
+            if (staticAxioms.remove(axiom) | refutableAxioms.remove(axiom)) {
+                indexRemoved(axiom);
+            }
         });
     }
 
@@ -553,8 +689,10 @@ public class Ontology implements AutoCloseable {
     public void addStaticAxioms(Stream<? extends OWLAxiom> axioms) {
         changed = true;
         axioms.forEach(axiom -> {
-            refutableAxioms.remove(axiom);
-            staticAxioms.add(axiom);
+            var wasRefutable = refutableAxioms.remove(axiom);
+            if (staticAxioms.add(axiom) && !wasRefutable) {
+                indexAdded(axiom);
+            }
         });
     }
 
@@ -565,8 +703,10 @@ public class Ontology implements AutoCloseable {
     public void addAxioms(Stream<? extends OWLAxiom> axioms) {
         changed = true;
         axioms.forEach(axiom -> {
-            staticAxioms.remove(axiom);
-            refutableAxioms.add(axiom);
+            var wasStatic = staticAxioms.remove(axiom);
+            if (refutableAxioms.add(axiom) && !wasStatic) {
+                indexAdded(axiom);
+            }
         });
     }
 
@@ -695,8 +835,17 @@ public class Ontology implements AutoCloseable {
      */
     public void setRefutableAxioms(Collection<? extends OWLAxiom> axioms) {
         changed = true;
+        for (var axiom : refutableAxioms) {
+            if (!staticAxioms.contains(axiom)) {
+                indexRemoved(axiom);
+            }
+        }
         refutableAxioms.clear();
-        refutableAxioms.addAll(axioms);
+        for (var axiom : axioms) {
+            if (refutableAxioms.add(axiom) && !staticAxioms.contains(axiom)) {
+                indexAdded(axiom);
+            }
+        }
     }
 
     /**
@@ -725,6 +874,37 @@ public class Ontology implements AutoCloseable {
         replaceAxiom(remove, Stream.of(replacement));
     }
 
+    /**
+     * Replace many axioms at once. This is equivalent to calling
+     * {@code replaceAxiom} for every entry of {@code replacements}, except that
+     * all axioms are removed before any of the replacements are added, and entries
+     * that replace an axiom only by itself are skipped. If an axiom is the
+     * replacement of both a static and a refutable axiom, it will be static.
+     *
+     * @param replacements
+     *            Map from the axioms to remove to the axioms replacing them.
+     */
+    public void replaceAxioms(Map<? extends OWLAxiom, ? extends Collection<? extends OWLAxiom>> replacements) {
+        var removed = new ArrayList<OWLAxiom>();
+        var newRefutable = new ArrayList<OWLAxiom>();
+        var newStatic = new ArrayList<OWLAxiom>();
+        for (var entry : replacements.entrySet()) {
+            var remove = entry.getKey();
+            var replacement = entry.getValue();
+            if (replacement.size() == 1 && replacement.contains(remove)) {
+                continue;
+            }
+            var added = staticAxioms.contains(remove) ? newStatic : newRefutable;
+            for (var axiom : replacement) {
+                added.add(getOriginAnnotatedAxiom(axiom, remove));
+            }
+            removed.add(remove);
+        }
+        removeAxioms(removed);
+        addAxioms(newRefutable);
+        addStaticAxioms(newStatic);
+    }
+
     /**
      * @param remove
      *            The set of axioms not to include in the result.
@@ -1075,7 +1255,7 @@ public class Ontology implements AutoCloseable {
      */
     public Stream<OWLClassExpression> subConcepts() {
         var df = getDefaultDataFactory();
-        return Stream.concat(axioms().flatMap(OWLAxiom::nestedClassExpressions),
+        return Stream.concat(AxiomIndex.elements(index().subConcepts),
                 Stream.of(df.getOWLThing(), df.getOWLNothing())).distinct();
     }
 
@@ -1083,12 +1263,20 @@ public class Ontology implements AutoCloseable {
      * @return A stream containing all non-simple roles.
      */
     public Stream<OWLObjectPropertyExpression> nonSimpleRoles() {
-        var df = getDefaultDataFactory();
-        return Stream
-                .concat(withOwlOntologyDo(ontology -> (new OWLObjectPropertyManager(ontology)).getNonSimpleProperties())
-                        .stream(),
-                        Stream.of(df.getOWLBottomObjectProperty(), df.getOWLTopObjectProperty()))
-                .distinct();
+        var result = nonSimpleRoles;
+        if (result == null) {
+            // Only depends on the RBox, so it is kept until an RBox axiom changes.
+            var df = getDefaultDataFactory();
+            result = Utils.toList(Stream
+                    .concat(withOwlOntologyDo(
+                            ontology -> (new OWLObjectPropertyManager(ontology)).getNonSimpleProperties()).stream(),
+                            Stream.of(df.getOWLBottomObjectProperty(), df.getOWLTopObjectProperty()))
+                    .distinct());
+            synchronized (this) {
+                nonSimpleRoles = result;
+            }
+        }
+        return result.stream();
     }
 
     /**
@@ -1155,7 +1343,7 @@ public class Ontology implements AutoCloseable {
      */
     public Stream<OWLClassExpression> subConceptsOfTbox() {
         var df = getDefaultDataFactory();
-        return Stream.concat(tboxAxioms().flatMap(OWLAxiom::nestedClassExpressions),
+        return Stream.concat(AxiomIndex.elements(index().subConceptsOfTbox),
                 Stream.of(df.getOWLThing(), df.getOWLNothing())).distinct();
     }
 
@@ -1163,7 +1351,7 @@ public class Ontology implements AutoCloseable {
      * @return A str eam containing all entities in the signature of this ontology.
      */
     public Stream<OWLEntity> signature() {
-        return axioms().flatMap(OWLAxiom::signature).distinct();
+        return AxiomIndex.elements(index().signature);
     }
 
     /**
@@ -1171,23 +1359,108 @@ public class Ontology implements AutoCloseable {
      *         ontology.
      */
     public Stream<OWLClass> conceptsInSignature() {
-        return axioms().flatMap(OWLAxiom::classesInSignature).distinct();
+        return AxiomIndex.elements(index().concepts);
     }
 
     /**
      * @return A stream containing all roles in the signature of this ontology.
      */
     public Stream<OWLObjectProperty> rolesInSignature() {
-        return axioms().flatMap(OWLAxiom::objectPropertiesInSignature).distinct();
+        return AxiomIndex.elements(index().roles);
     }
 
     /**
+     * @param reasoner
+     *            The reasoner that has classified the ontology.
+     * @param node
+     *            The node of the class hierarchy.
+     * @param concepts
+     *            The concepts to include in the result.
+     * @param closures
+     *            The already computed results for other nodes.
+     * @return The elements of {@code concepts} that are equivalent to or a
+     *         superclass of the classes in {@code node}.
+     */
+    private static Set<OWLClass> superClassClosure(OWLReasoner reasoner, Node<OWLClass> node, Set<OWLClass> concepts,
+            Map<Node<OWLClass>, Set<OWLClass>> closures) {
+        var closure = closures.get(node);
+        if (closure == null) {
+            closure = node.entities().filter(concepts::contains).collect(Collectors.toCollection(HashSet::new));
+            // JFact includes an empty node in the direct superclasses of some classes. It is skipped.
+            var parents = Utils.toList(reasoner.getSuperClasses(node.getRepresentativeElement(), true).nodes()
+                    .filter(parent -> parent.getSize() > 0));
+            for (var parent : parents) {
+                closure.addAll(superClassClosure(reasoner, parent, concepts, closures));
+            }
+            closures.put(node, closure);
+        }
+        return closure;
+    }
+
+    /**
+     * Compute all subsumptions between the concept names in {@code concepts} by
+     * classifying the ontology once, instead of testing every pair separately.
+     * The superclasses of every node in the class hierarchy are computed only
+     * once from the direct superclasses of the node. The classification is
+     * performed on a new reasoner that is not reused afterwards.
+     *
+     * @param concepts
+     *            The concept names to compute the subsumptions for.
+     * @return A map from every element of {@code concepts} to the elements of
+     *         {@code concepts} subsuming it.
+     */
+    private Map<OWLClass, Set<OWLClass>> classifiedSuperClasses(Set<OWLClass> concepts) {
+        var result = new HashMap<OWLClass, Set<OWLClass>>();
+        if (!isConsistent()) {
+            for (var concept : concepts) {
+                result.put(concept, concepts);
+            }
+            return result;
+        }
+        var signature = Utils.toSet(conceptsInSignature());
+        return reasonerCache.withNewReasonerDo(this, reasoner -> {
+            reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+            var closures = new HashMap<Node<OWLClass>, Set<OWLClass>>();
+            var topClosure = superClassClosure(reasoner, reasoner.getTopClassNode(), concepts, closures);
+            for (var concept : concepts) {
+                if (concept.isOWLNothing()) {
+                    result.put(concept, concepts);
+                } else if (concept.isOWLThing()) {
+                    result.put(concept, topClosure);
+                } else if (!signature.contains(concept)) {
+                    // Concepts not used in the ontology are only subsumed by the top concept.
+                    var closure = new HashSet<>(topClosure);
+                    closure.add(concept);
+                    result.put(concept, closure);
+                } else {
+                    var node = reasoner.getEquivalentClasses(concept);
+                    if (node.isBottomNode()) {
+                        result.put(concept, concepts);
+                    } else {
+                        result.put(concept, superClassClosure(reasoner, node, concepts, closures));
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * If all elements of {@code concepts} are concept names, the subsumptions are
+     * computed by classifying the ontology once.
+     *
      * @param concepts
      *            The concepts over which to build the axioms
      * @return The stream of C1 subclass C2 axioms, entailed by this ontology.
      */
     public Stream<OWLSubClassOfAxiom> inferredSubClassAxiomsOver(Set<OWLClassExpression> concepts) {
         var df = getDefaultDataFactory();
+        if (concepts.stream().allMatch(OWLClassExpression::isOWLClass)) {
+            var superClasses = classifiedSuperClasses(Utils.toSet(concepts.stream().map(c -> c.asOWLClass())));
+            return concepts.stream().flatMap(subClass -> concepts.stream()
+                    .filter(superClass -> superClasses.get(subClass).contains(superClass))
+                    .map(superClass -> df.getOWLSubClassOfAxiom(subClass, superClass)));
+        }
         var cache = new SubClassCache(concepts);
         return concepts.stream().flatMap(subClass -> concepts.stream()
                 .filter(superClass -> cache.computeIfAbsent(subClass, superClass, this::isSubClass))
@@ -1201,7 +1474,7 @@ public class Ontology implements AutoCloseable {
      */
     public Stream<OWLSubObjectPropertyOfAxiom> inferredSubRoleAxiomsOver(Set<OWLObjectPropertyExpression> roles) {
         var df = getDefaultDataFactory();
-        var cache = new SubRoleCache(roles);
+        var cache = new SubRoleCache(roles, rboxAxioms());
         return roles.stream().flatMap(subRole -> roles.stream()
                 .filter(superRole -> cache.computeIfAbsent(subRole, superRole, this::isSubRole))
                 .map(superRole -> df.getOWLSubObjectPropertyOfAxiom(subRole, superRole)));
@@ -1215,6 +1488,19 @@ public class Ontology implements AutoCloseable {
         return inferredSubClassAxiomsOver(Utils.toSet(conceptsInSignature()));
     }
 
+    /**
+     * The returned function keeps the index over the axioms of this ontology, so
+     * it should be reused for extracting multiple modules. Changes made to this
+     * ontology afterwards are not reflected in the extracted modules.
+     *
+     * @return A function returning the syntactic bottom-locality module of this
+     *         ontology for a given signature.
+     */
+    public Function<Set<OWLEntity>, Set<OWLAxiom>> bottomModuleExtractor() {
+        var extractor = new SyntacticLocalityModuleExtractor(defaultManager, axioms(), ModuleType.BOT);
+        return signature -> extractor.extract(signature);
+    }
+
     /**
      * @param <T>
      *            The set element type.
@@ -1235,6 +1521,58 @@ public class Ontology implements AutoCloseable {
         }
     }
 
+    /**
+     * @param a
+     *            The first set, as a sorted array without duplicates.
+     * @param b
+     *            The second set, as a sorted array without duplicates.
+     * @return double between 0 and 1. &gt; 0.5 if {@code a} contains more
+     *         information. &lt; 0.5 if {@code b} contains more information.
+     */
+    public static double relativeInformationContent(long[] a, long[] b) {
+        var common = 0L;
+        var i = 0;
+        var j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i += 1;
+            } else if (a[i] > b[j]) {
+                j += 1;
+            } else {
+                common += 1;
+                i += 1;
+                j += 1;
+            }
+        }
+        var onlyA = a.length - common;
+        var onlyB = b.length - common;
+        if (onlyB == 0 && onlyA == 0) {
+            return 0.5;
+        } else {
+            return ((double) onlyA) / ((double) onlyA + (double) onlyB);
+        }
+    }
+
+    /**
+     * @param concepts
+     *            The sorted list of concepts used for numbering the subsumptions.
+     *            Must contain all concepts in the signature of this ontology.
+     * @return The sorted numbers {@code i * n + j} of all subsumptions between
+     *         {@code concepts.get(i)} and {@code concepts.get(j)} entailed by
+     *         this ontology, where both concepts are in the signature of this
+     *         ontology and {@code n} is the size of {@code concepts}.
+     */
+    private long[] inferredTaxonomyIds(List<OWLClass> concepts) {
+        var signature = Utils.toSet(conceptsInSignature());
+        var superClasses = classifiedSuperClasses(signature);
+        var size = (long) concepts.size();
+        return superClasses.entrySet().stream().flatMapToLong(entry -> {
+            var subClass = (long) Collections.binarySearch(concepts, entry.getKey());
+            return entry.getValue().stream()
+                    .mapToLong(superClass -> subClass * size + Collections.binarySearch(concepts, superClass));
+        }).sorted().toArray();
+    }
+
     /**
      * @param other
      *            The other ontology.
@@ -1242,8 +1580,9 @@ public class Ontology implements AutoCloseable {
      *         the other ontology.
      */
     public double iicWithRespectTo(Ontology other) {
-        return relativeInformationContent(Utils.toSet(inferredTaxonomyAxioms()),
-                Utils.toSet(other.inferredTaxonomyAxioms()));
+        var concepts = Utils.toList(Stream.concat(conceptsInSignature(), other.conceptsInSignature())
+                .distinct().sorted());
+        return relativeInformationContent(inferredTaxonomyIds(concepts), other.inferredTaxonomyIds(concepts));
     }
 
     /**
@@ -1258,6 +1597,7 @@ public class Ontology implements AutoCloseable {
                 var newAxiom = df.getOWLDeclarationAxiom(entity);
                 if (!staticAxioms.contains(newAxiom) && !refutableAxioms.contains(newAxiom)) {
                     staticAxioms.add(newAxiom);
+                    indexAdded(newAxiom);
                 }
             }
         }
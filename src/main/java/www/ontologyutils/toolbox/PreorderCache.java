@@ -221,6 +221,34 @@ public class PreorderCache<T> {
         return set.contains(succ);
     }
 
+    /**
+     * Assert all successor relations known by this cache also in {@code other}.
+     * This is only valid if the relation cached in {@code other} is known to
+     * contain the relation cached in this object.
+     *
+     * @param other
+     *            The cache to which the known successors should be added.
+     * @return True iff the new information is consistent with what is already
+     *         known in {@code other}.
+     */
+    public boolean copyKnownSuccessorsTo(PreorderCache<T> other) {
+        var pairs = new ArrayList<Map.Entry<T, T>>();
+        synchronized (this) {
+            for (var entry : knownSuccessors.entrySet()) {
+                for (var succ : entry.getValue()) {
+                    if (!entry.getKey().equals(succ)) {
+                        pairs.add(new AbstractMap.SimpleEntry<>(entry.getKey(), succ));
+                    }
+                }
+            }
+        }
+        var consistent = true;
+        for (var pair : pairs) {
+            consistent &= other.assertSuccessor(pair.getKey(), pair.getValue());
+        }
+        return consistent;
+    }
+
     /**
      * @param pred
      *            The possible predecessor.
@@ -0,0 +1,290 @@
+package www.ontologyutils.toolbox;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.Stream;
+
+/**
+ * A thread-safe least-recently-used cache that computes every missing value
+ * only once. If multiple threads request the same missing key concurrently,
+ * one of them computes the value while the others wait for the result.
+ *
+ * All accesses to the underlying access-ordered {@code LinkedHashMap} are
+ * performed while holding the lock of this object, but the computation of
+ * missing values is performed without holding it. The function used to
+ * compute a value must not request the same key recursively.
+ */
+public class SingleFlightCache<K, V> {
+    private static record Tuple<K1,K2>(
+    K1 first, K2 second)
+    {
+    }
+
+    private LinkedHashMap<K, V> entries;
+    private Map<K, CompletableFuture<V>> inFlight;
+    private int cacheSize;
+    private long hits;
+    private long misses;
+    private long waits;
+
+    /**
+     * Create a new cache with the specified size.
+     *
+     * @param cacheSize
+     *            The maximum number of entries to keep in the cache. Use
+     *            Integer.MAX_VALUE to disable the limit completely.
+     */
+    public SingleFlightCache(int cacheSize) {
+        this.cacheSize = cacheSize;
+        this.entries = new LinkedHashMap<>(cacheSize != Integer.MAX_VALUE ? cacheSize * 2 : 256, 0.75f,
+                cacheSize != Integer.MAX_VALUE) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > SingleFlightCache.this.cacheSize;
+            }
+        };
+        this.inFlight = new HashMap<>();
+    }
+
+    /**
+     * Create a new cache without storage. Subclasses using this constructor must
+     * override {@code lookup}, {@code store}, {@code size}, and {@code clear}.
+     */
+    protected SingleFlightCache() {
+        this.inFlight = new HashMap<>();
+    }
+
+    /**
+     * Wrap the given function {@code function} using a {@code SingleFlightCache}
+     * with a maximum number of {@code cacheSize} entries.
+     *
+     * @param <K>
+     *            The domain of the function.
+     * @param <V>
+     *            The range of the function.
+     * @param function
+     *            The function to wrap.
+     * @param cacheSize
+     *            The cache size to use.
+     * @return The wrapped function.
+     */
+    public static <K, V> Function<K, V> wrapFunction(Function<K, V> function, int cacheSize) {
+        var cache = new SingleFlightCache<K, V>(cacheSize);
+        return input -> {
+            return cache.computeIfAbsent(input, function);
+        };
+    }
+
+    /**
+     * Wrap the given function {@code function} using a {@code SingleFlightCache}
+     * with some unspecified maximum size.
+     *
+     * @param <K>
+     *            The domain of the function.
+     * @param <V>
+     *            The range of the function.
+     * @param function
+     *            The function to wrap.
+     * @return The wrapped function.
+     */
+    public static <K, V> Function<K, V> wrapFunction(Function<K, V> function) {
+        return wrapFunction(function, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Wrap the given function {@code function} using a {@code SingleFlightCache}
+     * with some unspecified maximum size.
+     *
+     * @param <K1>
+     *            The first key.
+     * @param <K2>
+     *            The second key.
+     * @param function
+     *            The function to wrap.
+     * @return The wrapped function.
+     */
+    public static <K1, K2> BiPredicate<K1, K2> wrapFunction(BiPredicate<K1, K2> function) {
+        var cached = SingleFlightCache.<Tuple<K1, K2>, Boolean>wrapFunction(t -> function.test(t.first, t.second),
+                Integer.MAX_VALUE);
+        return (a, b) -> cached.apply(new Tuple<>(a, b));
+    }
+
+    /**
+     * Because streams can not be cached directly, we provide this utility that
+     * converts the stream to a list, and then back to a stream whenever needed.
+     *
+     * @param <K>
+     *            The domain of the function.
+     * @param <V>
+     *            The range of the function.
+     * @param function
+     *            The function to wrap.
+     * @param cacheSize
+     *            The maximum number of entries in the cache.
+     * @return The wrapped function.
+     */
+    public static <K, V> Function<K, Stream<V>> wrapStreamFunction(Function<K, Stream<V>> function, int cacheSize) {
+        var cached = wrapFunction((K input) -> Utils.toList(function.apply(input)), cacheSize);
+        return input -> cached.apply(input).stream();
+    }
+
+    /**
+     * Because streams can not be cached directly, we provide this utility that
+     * converts the stream to a list, and then back to a stream whenever needed.
+     *
+     * @param <K>
+     *            The domain of the function.
+     * @param <V>
+     *            The range of the function.
+     * @param function
+     *            The function to wrap.
+     * @return The wrapped function.
+     */
+    public static <K, V> Function<K, Stream<V>> wrapStreamFunction(Function<K, Stream<V>> function) {
+        return wrapStreamFunction(function, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Look up the value for {@code key} in the underlying storage. This is only
+     * called while holding the lock of this object.
+     *
+     * @param key
+     *            The key to look up.
+     * @return The value stored for {@code key}, or null if there is none.
+     */
+    protected V lookup(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Insert the value for {@code key} into the underlying storage. This is only
+     * called while holding the lock of this object.
+     *
+     * @param key
+     *            The key to insert.
+     * @param value
+     *            The value to associate with {@code key}.
+     */
+    protected void store(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * @param key
+     *            The key to look up.
+     * @return The value cached for {@code key}, or null if there is none.
+     */
+    public synchronized V get(K key) {
+        return lookup(key);
+    }
+
+    /**
+     * @param key
+     *            The key to insert.
+     * @param value
+     *            The value to associate with {@code key}.
+     */
+    public synchronized void put(K key, V value) {
+        store(key, value);
+    }
+
+    /**
+     * Get the value cached for {@code key}, or compute it using {@code func} if
+     * there is none. If another thread is already computing the value for
+     * {@code key}, wait for it to finish instead of computing it again. If that
+     * computation fails, the waiting threads will retry.
+     *
+     * @param key
+     *            The key to look up.
+     * @param func
+     *            The function to compute the value with.
+     * @return The value associated with {@code key}.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> func) {
+        while (true) {
+            CompletableFuture<V> future;
+            var owner = false;
+            synchronized (this) {
+                var result = lookup(key);
+                if (result != null) {
+                    hits += 1;
+                    return result;
+                }
+                future = inFlight.get(key);
+                if (future == null) {
+                    future = new CompletableFuture<>();
+                    inFlight.put(key, future);
+                    owner = true;
+                    misses += 1;
+                } else {
+                    waits += 1;
+                }
+            }
+            if (owner) {
+                V result;
+                try {
+                    result = func.apply(key);
+                } catch (RuntimeException | Error e) {
+                    synchronized (this) {
+                        inFlight.remove(key);
+                    }
+                    future.completeExceptionally(e);
+                    throw e;
+                }
+                synchronized (this) {
+                    inFlight.remove(key);
+                    if (result != null) {
+                        store(key, result);
+                    }
+                }
+                future.complete(result);
+                return result;
+            } else {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    throw new CanceledException();
+                } catch (ExecutionException e) {
+                    // The computing thread failed, e.g., because it was canceled. Try again.
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of entries currently in the cache.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove all entries from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return The number of lookups that found a cached value.
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return The number of lookups that had to compute the value.
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return The number of lookups that waited for a computation of another
+     *         thread.
+     */
+    public synchronized long waits() {
+        return waits;
+    }
+}
@@ -10,15 +10,112 @@ import org.semanticweb.owlapi.model.*;
  * the logic.
  */
 public class SubClassCache extends PreorderCache<OWLClassExpression> {
+    private PreorderCache<OWLObjectPropertyExpression> subRoles;
+
     /**
      * @param domain
      *            The domain of this preorder. May be incomplete.
+     * @param subRoles
+     *            A cache for the role hierarchy of the same ontology. Known role
+     *            subsumptions are used for inferring subsumptions between
+     *            restrictions. May be null.
      */
-    public SubClassCache(Collection<OWLClassExpression> domain) {
+    public SubClassCache(Collection<OWLClassExpression> domain, PreorderCache<OWLObjectPropertyExpression> subRoles) {
         super();
+        this.subRoles = subRoles;
         setupDomain(domain);
     }
 
+    /**
+     * @param domain
+     *            The domain of this preorder. May be incomplete.
+     */
+    public SubClassCache(Collection<OWLClassExpression> domain) {
+        this(domain, null);
+    }
+
+    private boolean isKnownSubRole(OWLObjectPropertyExpression sub, OWLObjectPropertyExpression sup) {
+        if (sub.equals(sup) || sub.isOWLBottomObjectProperty() || sup.isOWLTopObjectProperty()) {
+            return true;
+        } else {
+            return subRoles != null && subRoles.isKnownSuccessor(sub, sup);
+        }
+    }
+
+    /**
+     * @param concept
+     *            The concept to inspect.
+     * @return The minimum number of role successors implied by {@code concept}, or
+     *         -1 if {@code concept} is not an existential restriction.
+     */
+    private static int lowerBound(OWLClassExpression concept) {
+        switch (concept.getClassExpressionType()) {
+            case OBJECT_SOME_VALUES_FROM:
+                return 1;
+            case OBJECT_MIN_CARDINALITY:
+            case OBJECT_EXACT_CARDINALITY:
+                return ((OWLObjectCardinalityRestriction) concept).getCardinality();
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * @param concept
+     *            The concept to inspect.
+     * @return The maximum number of role successors allowed by {@code concept},
+     *         or -1 if {@code concept} is not a maximum cardinality restriction.
+     */
+    private static int upperBound(OWLClassExpression concept) {
+        switch (concept.getClassExpressionType()) {
+            case OBJECT_MAX_CARDINALITY:
+            case OBJECT_EXACT_CARDINALITY:
+                return ((OWLObjectCardinalityRestriction) concept).getCardinality();
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Uses monotonicity of restrictions in the role, filler, and number to infer
+     * subsumptions from already known subsumptions.
+     *
+     * @param pred
+     *            The possible sub concept.
+     * @param succ
+     *            The possible super concept.
+     * @return True if it is known that {@code pred} is subsumed by {@code succ}.
+     */
+    private boolean isKnownByMonotonicity(OWLClassExpression pred, OWLClassExpression succ) {
+        if (!(pred instanceof OWLQuantifiedObjectRestriction p)
+                || !(succ instanceof OWLQuantifiedObjectRestriction s)) {
+            return false;
+        }
+        var succType = succ.getClassExpressionType();
+        if (succType == ClassExpressionType.OBJECT_SOME_VALUES_FROM
+                || succType == ClassExpressionType.OBJECT_MIN_CARDINALITY) {
+            // Existential restrictions are monotone in the number, role, and filler.
+            var predBound = lowerBound(pred);
+            return predBound != -1 && predBound >= lowerBound(succ)
+                    && isKnownSubRole(p.getProperty(), s.getProperty())
+                    && isKnownSuccessor(p.getFiller(), s.getFiller());
+        } else if (succType == ClassExpressionType.OBJECT_MAX_CARDINALITY) {
+            // Maximum cardinality restrictions are anti-monotone in the role and filler.
+            var predBound = upperBound(pred);
+            return predBound != -1 && predBound <= upperBound(succ)
+                    && isKnownSubRole(s.getProperty(), p.getProperty())
+                    && isKnownSuccessor(s.getFiller(), p.getFiller());
+        } else if (succType == ClassExpressionType.OBJECT_ALL_VALUES_FROM) {
+            // Universal restrictions are anti-monotone in the role and monotone in the
+            // filler.
+            return pred.getClassExpressionType() == ClassExpressionType.OBJECT_ALL_VALUES_FROM
+                    && isKnownSubRole(s.getProperty(), p.getProperty())
+                    && isKnownSuccessor(p.getFiller(), s.getFiller());
+        } else {
+            return false;
+        }
+    }
+
     @Override
     protected boolean compute(OWLClassExpression pred, OWLClassExpression succ,
             BiPredicate<OWLClassExpression, OWLClassExpression> order) {
@@ -33,6 +130,16 @@ public class SubClassCache extends PreorderCache<OWLClassExpression> {
             if (pred.conjunctSet().anyMatch(p -> isKnownSuccessor(p, succ))) {
                 return true;
             }
+        } else if (pred.getClassExpressionType() == ClassExpressionType.OBJECT_COMPLEMENT_OF
+                && succ.getClassExpressionType() == ClassExpressionType.OBJECT_COMPLEMENT_OF) {
+            // not C is subsumed by not D iff D is subsumed by C.
+            var predOperand = ((OWLObjectComplementOf) pred).getOperand();
+            var succOperand = ((OWLObjectComplementOf) succ).getOperand();
+            if (isKnownSuccessor(succOperand, predOperand)) {
+                return true;
+            } else if (!isPossibleSuccessor(succOperand, predOperand)) {
+                return false;
+            }
         }
         if (succ.getClassExpressionType() == ClassExpressionType.OBJECT_INTERSECTION_OF) {
             if (succ.conjunctSet()
@@ -46,6 +153,9 @@ public class SubClassCache extends PreorderCache<OWLClassExpression> {
                 return true;
             }
         }
+        if (isKnownByMonotonicity(pred, succ)) {
+            return true;
+        }
         return super.compute(pred, succ, order);
     }
 }
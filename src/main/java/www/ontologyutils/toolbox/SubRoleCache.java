@@ -1,23 +1,78 @@
 package www.ontologyutils.toolbox;
 
 import java.util.Collection;
+import java.util.stream.Stream;
 
 import org.semanticweb.owlapi.model.*;
 
 /**
  * The preorder cache but extended to optimizing specially some constructs of
- * the logic.
+ * the logic. The told role hierarchy is added to the cache on construction and
+ * every fact is mirrored to the inverse roles, since r is subsumed by s if and
+ * only if the inverse of r is subsumed by the inverse of s.
  */
 public class SubRoleCache extends PreorderCache<OWLObjectPropertyExpression> {
     /**
      * @param domain
      *            The domain of this preorder. May be incomplete.
+     * @param axioms
+     *            Axioms that are known to be entailed, e.g., the RBox of the
+     *            ontology the cache is used for. Only role inclusions, role
+     *            equivalences, inverse roles, and symmetric roles are used.
      */
-    public SubRoleCache(Collection<OWLObjectPropertyExpression> domain) {
+    public SubRoleCache(Collection<OWLObjectPropertyExpression> domain, Stream<? extends OWLAxiom> axioms) {
         super();
         setupDomain(domain);
+        axioms.forEach(this::assertToldAxiom);
     }
 
-    // Not worth optimizing, because it is fast enough relative to the concept
-    // isSubClass computation.
+    /**
+     * @param domain
+     *            The domain of this preorder. May be incomplete.
+     */
+    public SubRoleCache(Collection<OWLObjectPropertyExpression> domain) {
+        this(domain, Stream.of());
+    }
+
+    private static OWLObjectPropertyExpression inverse(OWLObjectPropertyExpression role) {
+        if (role.isOWLTopObjectProperty() || role.isOWLBottomObjectProperty()) {
+            return role;
+        } else {
+            return role.getInverseProperty();
+        }
+    }
+
+    private void assertEquivalent(OWLObjectPropertyExpression first, OWLObjectPropertyExpression second) {
+        assertSuccessor(first, second);
+        assertSuccessor(second, first);
+    }
+
+    private void assertToldAxiom(OWLAxiom axiom) {
+        if (axiom instanceof OWLSubObjectPropertyOfAxiom subRoleAxiom) {
+            assertSuccessor(subRoleAxiom.getSubProperty(), subRoleAxiom.getSuperProperty());
+        } else if (axiom instanceof OWLEquivalentObjectPropertiesAxiom equivalentAxiom) {
+            var roles = Utils.toList(equivalentAxiom.properties());
+            for (int i = 1; i < roles.size(); i++) {
+                assertEquivalent(roles.get(0), roles.get(i));
+            }
+        } else if (axiom instanceof OWLInverseObjectPropertiesAxiom inverseAxiom) {
+            assertEquivalent(inverseAxiom.getFirstProperty(), inverse(inverseAxiom.getSecondProperty()));
+        } else if (axiom instanceof OWLSymmetricObjectPropertyAxiom symmetricAxiom) {
+            assertEquivalent(symmetricAxiom.getProperty(), inverse(symmetricAxiom.getProperty()));
+        }
+    }
+
+    @Override
+    protected synchronized void addKnownSuccessors(OWLObjectPropertyExpression pred,
+            OWLObjectPropertyExpression succ) {
+        super.addKnownSuccessors(pred, succ);
+        super.addKnownSuccessors(inverse(pred), inverse(succ));
+    }
+
+    @Override
+    protected synchronized void removePossibleSuccessors(OWLObjectPropertyExpression pred,
+            OWLObjectPropertyExpression succ) {
+        super.removePossibleSuccessors(pred, succ);
+        super.removePossibleSuccessors(inverse(pred), inverse(succ));
+    }
 }
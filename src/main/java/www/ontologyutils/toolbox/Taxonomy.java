@@ -0,0 +1,288 @@
+package www.ontologyutils.toolbox;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Computes the transitive reduction of a preorder over a finite domain. Every
+ * element is inserted into the hierarchy using a top-down search for the most
+ * specific predecessors followed by a bottom-up search for the most general
+ * successors. Both searches only test an element if this is not already
+ * implied by the tests performed for its neighbours.
+ *
+ * The implementation follows the enhanced traversal method as presented in
+ * Baader, F., Hollunder, B., Nebel, B., Profitlich, H. J., &amp; Franconi, E.
+ * (1994). An empirical analysis of optimization techniques for terminological
+ * representation systems. Applied Intelligence, 4(2), 109-132. and used also in
+ * Shearer, R., &amp; Horrocks, I. (2009). Exploiting partial information in
+ * taxonomy construction.
+ *
+ * In this class, for an element {@code pred} to be a predecessor of
+ * {@code succ} means that the preorder contains ({@code succ}, {@code pred}),
+ * i.e., with respect to subsumption, {@code pred} is more general.
+ */
+public class Taxonomy<T> {
+    private class Node {
+        public List<T> elements = new ArrayList<>();
+        public Set<Node> parents = new HashSet<>();
+        public Set<Node> children = new HashSet<>();
+
+        public T representative() {
+            return elements.get(0);
+        }
+    }
+
+    private BiPredicate<T, T> order;
+    private Node top;
+    private Node bottom;
+    private Map<T, Node> nodes;
+
+    /**
+     * Classify all elements in {@code domain} using the preorder {@code order}.
+     *
+     * @param domain
+     *            The elements to classify.
+     * @param order
+     *            The preorder, e.g., the subsumption relation. The predicate will
+     *            be called with ({@code a}, {@code b}) to test whether {@code a}
+     *            is below (e.g., subsumed by) {@code b}.
+     */
+    public Taxonomy(Collection<? extends T> domain, BiPredicate<T, T> order) {
+        this.order = order;
+        this.top = new Node();
+        this.bottom = new Node();
+        this.top.children.add(bottom);
+        this.bottom.parents.add(top);
+        this.nodes = new HashMap<>();
+        for (var elem : domain) {
+            insert(elem);
+        }
+    }
+
+    private boolean isAbove(Node node, T elem, Map<Node, Boolean> known) {
+        if (node == top) {
+            return true;
+        } else if (node == bottom) {
+            return false;
+        }
+        var result = known.get(node);
+        if (result == null) {
+            result = true;
+            for (var parent : node.parents) {
+                if (!isAbove(parent, elem, known)) {
+                    result = false;
+                    break;
+                }
+            }
+            if (result) {
+                result = order.test(elem, node.representative());
+            }
+            known.put(node, result);
+        }
+        return result;
+    }
+
+    private boolean isBelow(Node node, T elem, Set<Node> candidates, Map<Node, Boolean> known) {
+        if (node == bottom) {
+            return true;
+        } else if (node == top) {
+            return false;
+        }
+        var result = known.get(node);
+        if (result == null) {
+            result = candidates == null || candidates.contains(node);
+            if (result) {
+                for (var child : node.children) {
+                    if (!isBelow(child, elem, candidates, known)) {
+                        result = false;
+                        break;
+                    }
+                }
+            }
+            if (result) {
+                result = order.test(node.representative(), elem);
+            }
+            known.put(node, result);
+        }
+        return result;
+    }
+
+    private Set<Node> topSearch(T elem) {
+        var result = new HashSet<Node>();
+        var known = new HashMap<Node, Boolean>();
+        var visited = new HashSet<Node>();
+        var stack = new ArrayDeque<Node>();
+        stack.push(top);
+        visited.add(top);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            var found = false;
+            for (var child : node.children) {
+                if (isAbove(child, elem, known)) {
+                    found = true;
+                    if (visited.add(child)) {
+                        stack.push(child);
+                    }
+                }
+            }
+            if (!found) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    private Set<Node> descendants(Node node) {
+        var result = new HashSet<Node>();
+        var stack = new ArrayDeque<Node>();
+        stack.push(node);
+        result.add(node);
+        while (!stack.isEmpty()) {
+            for (var child : stack.pop().children) {
+                if (result.add(child)) {
+                    stack.push(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Set<Node> bottomSearch(T elem, Set<Node> parents) {
+        // Only descendants of all parents can be below the new element.
+        Set<Node> candidates = null;
+        for (var parent : parents) {
+            if (parent != top) {
+                var below = descendants(parent);
+                if (candidates == null) {
+                    candidates = below;
+                } else {
+                    candidates.retainAll(below);
+                }
+            }
+        }
+        var result = new HashSet<Node>();
+        var known = new HashMap<Node, Boolean>();
+        var visited = new HashSet<Node>();
+        var stack = new ArrayDeque<Node>();
+        stack.push(bottom);
+        visited.add(bottom);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            var found = false;
+            for (var parent : node.parents) {
+                if (isBelow(parent, elem, candidates, known)) {
+                    found = true;
+                    if (visited.add(parent)) {
+                        stack.push(parent);
+                    }
+                }
+            }
+            if (!found) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    private void insert(T elem) {
+        if (nodes.containsKey(elem)) {
+            return;
+        }
+        var parents = topSearch(elem);
+        if (parents.size() == 1) {
+            var parent = parents.iterator().next();
+            if (parent != top && order.test(parent.representative(), elem)) {
+                parent.elements.add(elem);
+                nodes.put(elem, parent);
+                return;
+            }
+        }
+        var children = bottomSearch(elem, parents);
+        var node = new Node();
+        node.elements.add(elem);
+        for (var parent : parents) {
+            for (var child : children) {
+                parent.children.remove(child);
+                child.parents.remove(parent);
+            }
+        }
+        for (var parent : parents) {
+            parent.children.add(node);
+            node.parents.add(parent);
+        }
+        for (var child : children) {
+            child.parents.add(node);
+            node.children.add(child);
+        }
+        nodes.put(elem, node);
+    }
+
+    /**
+     * @param elem
+     *            The element to test.
+     * @return True iff {@code elem} is part of this taxonomy.
+     */
+    public boolean contains(T elem) {
+        return nodes.containsKey(elem);
+    }
+
+    /**
+     * @param elem
+     *            The element for which to find the equivalent elements.
+     * @return A stream of all elements that are equivalent to {@code elem},
+     *         including {@code elem} itself.
+     */
+    public Stream<T> equivalents(T elem) {
+        return nodes.get(elem).elements.stream();
+    }
+
+    /**
+     * @param elem
+     *            The element for which to find the direct predecessors.
+     * @return A stream of all elements that are strictly above {@code elem} and
+     *         for which there is no other element in between.
+     */
+    public Stream<T> directPredecessors(T elem) {
+        return nodes.get(elem).parents.stream().flatMap(node -> node.elements.stream());
+    }
+
+    /**
+     * @param elem
+     *            The element for which to find the direct successors.
+     * @return A stream of all elements that are strictly below {@code elem} and
+     *         for which there is no other element in between.
+     */
+    public Stream<T> directSuccessors(T elem) {
+        return nodes.get(elem).children.stream().flatMap(node -> node.elements.stream());
+    }
+
+    /**
+     * @param elem
+     *            The element for which to find all predecessors.
+     * @return A stream of all elements above or equivalent to {@code elem}.
+     */
+    public Stream<T> predecessors(T elem) {
+        var result = new HashSet<Node>();
+        var stack = new ArrayDeque<Node>();
+        stack.push(nodes.get(elem));
+        result.add(stack.peek());
+        while (!stack.isEmpty()) {
+            for (var parent : stack.pop().parents) {
+                if (result.add(parent)) {
+                    stack.push(parent);
+                }
+            }
+        }
+        return result.stream().flatMap(node -> node.elements.stream());
+    }
+
+    /**
+     * @param elem
+     *            The element for which to find all successors.
+     * @return A stream of all elements below or equivalent to {@code elem}.
+     */
+    public Stream<T> successors(T elem) {
+        return descendants(nodes.get(elem)).stream().flatMap(node -> node.elements.stream());
+    }
+}
@@ -0,0 +1,279 @@
+package www.ontologyutils.toolbox;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.Stream;
+
+/**
+ * A cache bounded by the total weight of its entries, using a frequency-aware
+ * admission policy. New entries are first placed in a small window that is
+ * managed in least-recently-used order. Entries evicted from the window only
+ * enter the main space if they have been requested more often than the entry
+ * they would replace. The main space is split into a probation and a
+ * protected segment, and entries are moved to the protected segment on their
+ * second hit. Frequencies are estimated with a count-min sketch that is
+ * periodically halved so that old accesses are forgotten.
+ *
+ * The implementation follows the W-TinyLFU policy as presented in Einziger,
+ * G., Friedman, R., &amp; Manes, B. (2017). TinyLFU: A highly efficient cache
+ * admission policy. ACM Transactions on Storage (TOS), 13(4), 1-31.
+ */
+public class WeightedCache<K, V> extends SingleFlightCache<K, V> {
+    private static record Entry<V>(V value, long weight) {
+    }
+
+    /**
+     * Approximate counting of the number of times each key has been seen. Every
+     * counter is saturated at 15, and all counters are halved after a number of
+     * increments proportional to the width of the sketch.
+     */
+    private static class CountMinSketch {
+        private static final int DEPTH = 4;
+        private static final int[] SEEDS = { 0x9e3779b9, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f };
+
+        private byte[][] counters;
+        private int mask;
+        private int additions;
+        private int sampleSize;
+
+        public CountMinSketch(int width) {
+            var size = Integer.highestOneBit(Math.max(16, width - 1)) << 1;
+            counters = new byte[DEPTH][size];
+            mask = size - 1;
+            sampleSize = 10 * size;
+        }
+
+        private int index(Object key, int row) {
+            var hash = key.hashCode() * SEEDS[row];
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+        public int frequency(Object key) {
+            var result = Integer.MAX_VALUE;
+            for (int i = 0; i < DEPTH; i++) {
+                result = Math.min(result, counters[i][index(key, i)]);
+            }
+            return result;
+        }
+
+        public void increment(Object key) {
+            var changed = false;
+            for (int i = 0; i < DEPTH; i++) {
+                var j = index(key, i);
+                if (counters[i][j] < 15) {
+                    counters[i][j] += 1;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                additions += 1;
+                if (additions >= sampleSize) {
+                    for (var row : counters) {
+                        for (int j = 0; j < row.length; j++) {
+                            row[j] >>= 1;
+                        }
+                    }
+                    additions /= 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * A map of entries in least-recently-used order, keeping track of the total
+     * weight of the contained entries.
+     */
+    private static class Segment<K, V> {
+        public LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        public long weight;
+        public long maxWeight;
+
+        public Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        public void put(K key, Entry<V> entry) {
+            var old = entries.put(key, entry);
+            weight += entry.weight - (old != null ? old.weight : 0);
+        }
+
+        public Entry<V> remove(K key) {
+            var old = entries.remove(key);
+            if (old != null) {
+                weight -= old.weight;
+            }
+            return old;
+        }
+
+        public K eldest() {
+            return entries.isEmpty() ? null : entries.keySet().iterator().next();
+        }
+    }
+
+    private ToLongFunction<V> weigher;
+    private long maxWeight;
+    private CountMinSketch sketch;
+    private Segment<K, V> window;
+    private Segment<K, V> probation;
+    private Segment<K, V> protectedSegment;
+
+    /**
+     * Create a new cache with the specified maximum weight.
+     *
+     * @param maxWeight
+     *            The maximum total weight of all entries in the cache.
+     * @param weigher
+     *            The function computing the weight of a value. The weight of a
+     *            value must not change while it is in the cache.
+     */
+    public WeightedCache(long maxWeight, ToLongFunction<V> weigher) {
+        super();
+        this.weigher = weigher;
+        this.maxWeight = maxWeight;
+        var windowWeight = Math.max(1, maxWeight / 100);
+        var mainWeight = Math.max(0, maxWeight - windowWeight);
+        this.window = new Segment<>(windowWeight);
+        this.probation = new Segment<>(mainWeight);
+        this.protectedSegment = new Segment<>(mainWeight * 4 / 5);
+        this.sketch = new CountMinSketch((int) Math.min(1 << 20, Math.max(16, maxWeight / 4)));
+    }
+
+    /**
+     * Wrap the given function {@code function} using a {@code WeightedCache} with
+     * a maximum weight of {@code maxWeight}.
+     *
+     * @param <K>
+     *            The domain of the function.
+     * @param <V>
+     *            The range of the function.
+     * @param function
+     *            The function to wrap.
+     * @param maxWeight
+     *            The maximum total weight of the cached values.
+     * @param weigher
+     *            The function computing the weight of a value.
+     * @return The wrapped function.
+     */
+    public static <K, V> Function<K, V> wrapWeightedFunction(Function<K, V> function, long maxWeight,
+            ToLongFunction<V> weigher) {
+        var cache = new WeightedCache<K, V>(maxWeight, weigher);
+        return input -> {
+            return cache.computeIfAbsent(input, function);
+        };
+    }
+
+    /**
+     * Because streams can not be cached directly, we provide this utility that
+     * converts the stream to a list, and then back to a stream whenever needed.
+     * The weight of every entry is one more than the length of its list.
+     *
+     * @param <K>
+     *            The domain of the function.
+     * @param <V>
+     *            The range of the function.
+     * @param function
+     *            The function to wrap.
+     * @param maxWeight
+     *            The maximum total length of the cached lists.
+     * @return The wrapped function.
+     */
+    public static <K, V> Function<K, Stream<V>> wrapWeightedStreamFunction(Function<K, Stream<V>> function,
+            long maxWeight) {
+        var cached = wrapWeightedFunction((K input) -> Utils.toList(function.apply(input)), maxWeight,
+                list -> list.size() + 1);
+        return input -> cached.apply(input).stream();
+    }
+
+    private long mainWeight() {
+        return probation.weight + protectedSegment.weight;
+    }
+
+    @Override
+    protected V lookup(K key) {
+        sketch.increment(key);
+        var entry = window.entries.get(key);
+        if (entry == null) {
+            entry = protectedSegment.entries.get(key);
+            if (entry == null) {
+                entry = probation.remove(key);
+                if (entry != null) {
+                    protectedSegment.put(key, entry);
+                    while (protectedSegment.weight > protectedSegment.maxWeight) {
+                        var demoted = protectedSegment.eldest();
+                        probation.put(demoted, protectedSegment.remove(demoted));
+                    }
+                }
+            }
+        }
+        return entry != null ? entry.value : null;
+    }
+
+    @Override
+    protected void store(K key, V value) {
+        var entry = new Entry<>(value, weigher.applyAsLong(value));
+        window.remove(key);
+        probation.remove(key);
+        protectedSegment.remove(key);
+        if (entry.weight > maxWeight) {
+            return;
+        }
+        window.put(key, entry);
+        while (window.weight > window.maxWeight) {
+            var candidate = window.eldest();
+            admit(candidate, window.remove(candidate));
+        }
+    }
+
+    /**
+     * Move the entry evicted from the window into the main space, if its estimated
+     * frequency is higher than that of the entries it would replace.
+     *
+     * @param key
+     *            The key evicted from the window.
+     * @param entry
+     *            The entry evicted from the window.
+     */
+    private void admit(K key, Entry<V> entry) {
+        var frequency = sketch.frequency(key);
+        var victims = new ArrayList<K>();
+        var freed = 0L;
+        var available = probation.maxWeight - mainWeight();
+        // Iterate over the entries directly, since a lookup would change the access order.
+        var probationEntries = probation.entries.entrySet().iterator();
+        var protectedEntries = protectedSegment.entries.entrySet().iterator();
+        while (available + freed < entry.weight) {
+            var victim = probationEntries.hasNext() ? probationEntries.next()
+                    : protectedEntries.hasNext() ? protectedEntries.next() : null;
+            if (victim == null || sketch.frequency(victim.getKey()) >= frequency) {
+                return;
+            }
+            victims.add(victim.getKey());
+            freed += victim.getValue().weight;
+        }
+        for (var victim : victims) {
+            if (probation.remove(victim) == null) {
+                protectedSegment.remove(victim);
+            }
+        }
+        probation.put(key, entry);
+    }
+
+    @Override
+    public synchronized int size() {
+        return window.entries.size() + probation.entries.size() + protectedSegment.entries.size();
+    }
+
+    /**
+     * @return The total weight of all entries currently in the cache.
+     */
+    public synchronized long weight() {
+        return window.weight + mainWeight();
+    }
+
+    @Override
+    public synchronized void clear() {
+        window = new Segment<>(window.maxWeight);
+        probation = new Segment<>(probation.maxWeight);
+        protectedSegment = new Segment<>(protectedSegment.maxWeight);
+    }
+}
@@ -0,0 +1,83 @@
+package www.ontologyutils.apps;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.jupiter.api.parallel.Isolated;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.semanticweb.owlapi.model.*;
+
+import www.ontologyutils.toolbox.*;
+
+/**
+ * The origin annotations are enabled globally, so these tests must not run
+ * concurrently with any other tests. The origin annotations are compared only
+ * for the streaming mode, since they are lost when reading back the output of
+ * the non-streaming mode.
+ */
+@Isolated
+public class CleanupOntologyTest {
+    /**
+     * Run the cleanup and load the result. Declarations are ignored, and n-ary
+     * axioms are split into pairs, since the two modes write different formats.
+     */
+    private static Set<OWLAxiom> cleanup(String path, String... flags) throws IOException {
+        var output = File.createTempFile("cleanup", ".owl");
+        try {
+            var args = new ArrayList<>(List.of(flags));
+            args.addAll(List.of("-o", output.toString(), path));
+            new CleanupOntology().launch(args.toArray(String[]::new));
+            try (var ontology = Ontology.loadOntology(output.toString())) {
+                return Utils.toSet(ontology.axioms()
+                        .filter(axiom -> !axiom.isOfType(AxiomType.DECLARATION))
+                        .flatMap(axiom -> axiom instanceof OWLNaryAxiom
+                                ? ((OWLNaryAxiom<?>) axiom).asPairwiseAxioms().stream().map(OWLAxiom.class::cast)
+                                : List.of(axiom).stream()));
+            }
+        } finally {
+            output.delete();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/alcroiq/owl-tests.owl", "/alcri/sroiq-tests.owl", "/alc/Fish.owl",
+            "/shoin/pizza.owl" })
+    public void streamingCleanupEqualsCleanup(String resourceName) throws IOException {
+        var path = CleanupOntologyTest.class.getResource(resourceName).getFile();
+        assertEquals(cleanup(path), cleanup(path, "-s"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/alcroiq/owl-tests.owl", "/alcri/sroiq-tests.owl", "/alc/Fish.owl",
+            "/shoin/pizza.owl" })
+    public void streamingNormalizationEqualsNormalization(String resourceName) throws IOException {
+        var path = CleanupOntologyTest.class.getResource(resourceName).getFile();
+        assertEquals(cleanup(path, "-n"), cleanup(path, "-n", "-s"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/alcroiq/owl-tests.owl", "/shoin/pizza.owl" })
+    public void streamingNormalizationAddsOriginAnnotations(String resourceName) throws IOException {
+        var path = CleanupOntologyTest.class.getResource(resourceName).getFile();
+        var cleaned = cleanup(path, "-s");
+        Ontology.originAnnotation = true;
+        try {
+            var normalized = cleanup(path, "-n", "-s");
+            assertEquals(cleanup(path, "-n"),
+                    Utils.toSet(normalized.stream().map(axiom -> axiom.getAxiomWithoutAnnotations())));
+            assertTrue(normalized.stream().anyMatch(OWLAxiom::isAnnotated));
+            for (var axiom : normalized) {
+                if (axiom.isAnnotated()) {
+                    assertEquals(1, axiom.annotations(Ontology.getOriginAnnotationProperty()).count());
+                } else {
+                    assertTrue(cleaned.contains(axiom));
+                }
+            }
+        } finally {
+            Ontology.originAnnotation = false;
+        }
+    }
+}
@@ -141,4 +141,19 @@ public class ConceptNormalizationTest {
             }
         }
     }
+
+    @ParameterizedTest
+    @MethodSource("testAxioms")
+    public void sharedSubconceptsAreNormalizedOnce(Set<OWLAxiom> axioms) {
+        var normalization = new ConceptNormalization(true);
+        var concepts = axioms.stream().flatMap(OWLAxiom::nestedClassExpressions).toList();
+        var first = concepts.parallelStream().map(normalization::asSroiqConcept).toList();
+        var second = concepts.parallelStream().map(normalization::asSroiqConcept).toList();
+        for (int i = 0; i < concepts.size(); i++) {
+            assertSame(first.get(i), second.get(i));
+            if (first.get(i).equals(concepts.get(i))) {
+                assertSame(concepts.get(i), first.get(i));
+            }
+        }
+    }
 }
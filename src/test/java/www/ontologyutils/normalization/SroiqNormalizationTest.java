@@ -2,12 +2,14 @@ package www.ontologyutils.normalization;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
 import org.junit.jupiter.api.parallel.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.semanticweb.owlapi.model.*;
 
-import www.ontologyutils.toolbox.Ontology;
+import www.ontologyutils.toolbox.*;
 
 @Execution(ExecutionMode.CONCURRENT)
 public class SroiqNormalizationTest {
@@ -31,4 +33,41 @@ public class SroiqNormalizationTest {
             }
         }
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/alch/catsandnumbers.owl", "/el/bodysystem.owl", "/alc/bfo.owl", "/alcroiq/owl-tests.owl",
+            "/alcri/sroiq-tests.owl", "/alc/InitialOntologyInsta.owl", "/shoin/pizza.owl"
+    })
+    public void fusedNormalizationEqualsSequential(String resourceName) throws OWLOntologyCreationException {
+        var path = SroiqNormalizationTest.class.getResource(resourceName).getFile();
+        try (var fused = Ontology.loadOntology(path)) {
+            try (var sequential = fused.clone()) {
+                new SroiqNormalization().apply(fused);
+                new TBoxNormalization().apply(sequential);
+                new ABoxNormalization().apply(sequential);
+                new RBoxNormalization().apply(sequential);
+                new ConceptNormalization().apply(sequential);
+                assertEquals(Utils.toSet(sequential.staticAxioms()), Utils.toSet(fused.staticAxioms()));
+                assertEquals(Utils.toSet(sequential.refutableAxioms()), Utils.toSet(fused.refutableAxioms()));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/alcroiq/owl-tests.owl", "/alcri/sroiq-tests.owl", "/shoin/pizza.owl" })
+    public void axiomsThatAreStaticAndRefutableAreNormalizedOnce(String resourceName) {
+        var path = SroiqNormalizationTest.class.getResource(resourceName).getFile();
+        for (var normalization : List.of(new SroiqNormalization(), new TBoxNormalization(), new ABoxNormalization(),
+                new RBoxNormalization(), new ConceptNormalization(), new NnfNormalization())) {
+            try (var ontology = Ontology.loadOntology(path); var overlapping = Ontology.loadOntology(path)) {
+                var axioms = Utils.toSet(overlapping.axioms());
+                overlapping.addStaticAxioms(axioms);
+                overlapping.setRefutableAxioms(axioms);
+                normalization.apply(ontology);
+                normalization.apply(overlapping);
+                assertEquals(Utils.toSet(ontology.axioms()), Utils.toSet(overlapping.axioms()));
+            }
+        }
+    }
 }
@@ -3,7 +3,7 @@ package www.ontologyutils.refinement;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.util.List;
+import java.util.*;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.parallel.*;
@@ -35,6 +35,23 @@ public class CachedWeakenerTest {
         }
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/alch/catsandnumbers.owl", "/el/bodysystem.owl", "/el/a-and-b.owl", "/alc/Alignment.owl",
+            "/alcri/sroiq-tests.owl", "/alc/InitialOntology.owl",
+    })
+    public void boundedAndUnboundedWeakeningAreEqual(String resourceName) throws OWLOntologyCreationException {
+        var path = SroiqAxiomWeakenerTest.class.getResource(resourceName).getFile();
+        try (var ontology = Ontology.loadOntology(path)) {
+            var unbounded = new AxiomWeakener(ontology);
+            var bounded = new AxiomWeakener(ontology, ontology, null, 16, AxiomWeakener.FLAG_DEFAULT);
+            ontology.logicalAxioms().forEach(axiom -> {
+                assertEquals(Utils.toSet(unbounded.weakerAxioms(axiom)),
+                        Utils.toSet(bounded.weakerAxioms(axiom)));
+            });
+        }
+    }
+
     @ParameterizedTest
     @ValueSource(strings = { "/alc/Test_hybrid.owl", "/alc/Fish.owl", "/alc/Vehicle.owl", "/shoin/pizza.owl" })
     public void cachedAndUncachedWeakeningAreEqualSlow(String resourceName) throws OWLOntologyCreationException {
@@ -123,4 +140,109 @@ public class CachedWeakenerTest {
             });
         }
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/alch/catsandnumbers.owl", "/el/bodysystem.owl", "/el/a-and-b.owl", "/alc/Alignment.owl",
+            "/alcri/sroiq-tests.owl", "/alc/InitialOntology.owl", "/alc/InitialOntologyAlignment.owl",
+    })
+    public void sharedAndUnsharedCoversAreEqual(String resourceName) throws OWLOntologyCreationException {
+        var path = SroiqAxiomWeakenerTest.class.getResource(resourceName).getFile();
+        try (var ontology = Ontology.loadOntology(path)) {
+            var subConcepts = Utils.toSet(ontology.subConcepts());
+            var subRoles = Utils.toSet(ontology.subRoles());
+            var simpleRoles = Utils.toSet(ontology.simpleRoles());
+            var sharedCaches = new Covers.SharedCaches();
+            var axioms = Utils.toList(ontology.refutableAxioms());
+            for (int i = 0; i <= axioms.size(); i += Math.max(1, axioms.size() / 3)) {
+                try (var refOntology = ontology.cloneWithRefutable(Set.copyOf(axioms.subList(0, i)))) {
+                    var shared = new Covers(refOntology, subConcepts, subRoles, simpleRoles, 0, sharedCaches);
+                    var unshared = new Covers(refOntology, subConcepts, subRoles, simpleRoles, 0);
+                    subConcepts.forEach(concept -> {
+                        assertEquals(Utils.toSet(unshared.upCover(concept)), Utils.toSet(shared.upCover(concept)));
+                        assertEquals(Utils.toSet(unshared.downCover(concept)),
+                                Utils.toSet(shared.downCover(concept)));
+                    });
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/alch/catsandnumbers.owl", "/el/bodysystem.owl", "/alc/bfo.owl",
+            "/el/a-and-b.owl", "/el/Empty.owl", "/alc/Alignment.owl", "/alcroiq/owl-tests.owl",
+            "/alcri/sroiq-tests.owl", "/el/Disalignment.owl", "/alc/InitialOntology.owl",
+            "/alc/InitialOntologyAlignment.owl", "/alc/InitialOntologyInsta.owl",
+    })
+    public void classifiedAndUnclassifiedCoversAreEqual(String resourceName) throws OWLOntologyCreationException {
+        var path = SroiqAxiomWeakenerTest.class.getResource(resourceName).getFile();
+        try (var ontology = Ontology.loadOntology(path)) {
+            var subConcepts = Utils.toSet(ontology.subConcepts());
+            var subRoles = Utils.toSet(ontology.subRoles());
+            var simpleRoles = Utils.toSet(ontology.simpleRoles());
+            var cached = new Covers(ontology, subConcepts, subRoles, simpleRoles, 0);
+            var classified = new Covers(ontology, subConcepts, subRoles, simpleRoles,
+                    AxiomWeakener.FLAG_CLASSIFY_CONCEPTS);
+            ontology.subConcepts().forEach(concept -> {
+                assertEquals(Utils.toSet(cached.upCover(concept)), Utils.toSet(classified.upCover(concept)));
+                assertEquals(Utils.toSet(cached.downCover(concept)), Utils.toSet(classified.downCover(concept)));
+            });
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/alch/catsandnumbers.owl", "/el/bodysystem.owl", "/el/a-and-b.owl", "/alc/Alignment.owl",
+            "/alcri/sroiq-tests.owl", "/alc/InitialOntology.owl",
+    })
+    public void precomputedAndLazyCoversAreEqual(String resourceName) throws OWLOntologyCreationException {
+        var path = SroiqAxiomWeakenerTest.class.getResource(resourceName).getFile();
+        try (var ontology = Ontology.loadOntology(path)) {
+            var subConcepts = Utils.toSet(ontology.subConcepts());
+            var subRoles = Utils.toSet(ontology.subRoles());
+            var simpleRoles = Utils.toSet(ontology.simpleRoles());
+            var lazy = new Covers(ontology, subConcepts, subRoles, simpleRoles, 0);
+            var precomputed = new Covers(ontology, subConcepts, subRoles, simpleRoles, 0);
+            var progress = new ArrayList<Integer>();
+            precomputed.precomputeCovers(4, (done, total) -> progress.add(done));
+            assertEquals(subConcepts.size() + subRoles.size() + simpleRoles.size(), progress.size());
+            subConcepts.forEach(concept -> {
+                assertEquals(Utils.toSet(lazy.upCover(concept)), Utils.toSet(precomputed.upCover(concept)));
+                assertEquals(Utils.toSet(lazy.downCover(concept)), Utils.toSet(precomputed.downCover(concept)));
+            });
+            subRoles.forEach(role -> {
+                assertEquals(Utils.toSet(lazy.upCover(role, false)), Utils.toSet(precomputed.upCover(role, false)));
+                assertEquals(Utils.toSet(lazy.downCover(role, false)),
+                        Utils.toSet(precomputed.downCover(role, false)));
+            });
+            simpleRoles.forEach(role -> {
+                assertEquals(Utils.toSet(lazy.upCover(role, true)), Utils.toSet(precomputed.upCover(role, true)));
+                assertEquals(Utils.toSet(lazy.downCover(role, true)), Utils.toSet(precomputed.downCover(role, true)));
+            });
+        }
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/alch/catsandnumbers.owl", "/el/bodysystem.owl", "/alc/Alignment.owl", "/alcri/sroiq-tests.owl",
+            "/alc/InitialOntologyInsta.owl",
+    })
+    public void sharedFactoryRefinementIsEqual(String resourceName) throws OWLOntologyCreationException {
+        var path = SroiqAxiomWeakenerTest.class.getResource(resourceName).getFile();
+        try (var ontology = Ontology.loadOntology(path)) {
+            var factory = new AxiomRefinementFactory(ontology, AxiomWeakener.FLAG_DEFAULT);
+            var sharedWeakener = factory.weakener();
+            var sharedStrengthener = factory.strengthener();
+            var weakener = new AxiomWeakener(ontology);
+            var strengthener = new AxiomStrengthener(ontology);
+            ontology.logicalAxioms().forEach(axiom -> {
+                assertEquals(Utils.toSet(weakener.weakerAxioms(axiom)),
+                        Utils.toSet(sharedWeakener.weakerAxioms(axiom)));
+                assertEquals(Utils.toSet(strengthener.strongerAxioms(axiom)),
+                        Utils.toSet(sharedStrengthener.strongerAxioms(axiom)));
+            });
+        }
+    }
 }
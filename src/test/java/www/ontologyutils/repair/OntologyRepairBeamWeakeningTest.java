@@ -0,0 +1,58 @@
+package www.ontologyutils.repair;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import www.ontologyutils.toolbox.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class OntologyRepairBeamWeakeningTest extends OntologyRepairTest {
+    @Override
+    protected OntologyRepair getRepairForConsistency() {
+        return OntologyRepairBeamWeakening.forConsistency(4, 4);
+    }
+
+    @Override
+    protected OntologyRepair getRepairForCoherence() {
+        return OntologyRepairBeamWeakening.forCoherence(4, 4);
+    }
+
+    @Override
+    @ParameterizedTest
+    @ValueSource(strings = { "/inconsistent/leftpolicies-small.owl", "/inconsistent/leftpolicies.owl" })
+    public void repairInconsistentOntologyFromFile(String resourceName) {
+        super.repairInconsistentOntologyFromFile(resourceName);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/inconsistent/leftpolicies-small.owl", "/inconsistent/leftpolicies.owl" })
+    public void repairWithNormalizationInconsistentOntologyFromFile(String resourceName) {
+        super.repairWithNormalizationInconsistentOntologyFromFile(resourceName);
+    }
+
+    @Test
+    public void narrowBeamRestartsAndRepairs() {
+        var path = OntologyRepairBeamWeakeningTest.class.getResource("/inconsistent/leftpolicies-small.owl").getFile();
+        var restarts = new AtomicInteger();
+        for (int seed = 0; seed < 10; seed++) {
+            try (var ontology = Ontology.loadOntology(path)) {
+                Utils.randomSeed(seed);
+                var repair = OntologyRepairBeamWeakening.forConsistency(1, 1);
+                repair.setInfoCallback(message -> {
+                    if (message.startsWith("No partial repairs left.")) {
+                        restarts.incrementAndGet();
+                    }
+                });
+                repair.apply(ontology);
+                assertTrue(ontology.isConsistent());
+            }
+        }
+        assertTrue(restarts.get() > 0);
+    }
+}
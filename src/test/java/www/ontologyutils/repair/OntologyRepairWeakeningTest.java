@@ -1,6 +1,14 @@
 package www.ontologyutils.repair;
 
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.parallel.*;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import www.ontologyutils.toolbox.*;
 
 @Execution(ExecutionMode.CONCURRENT)
 public class OntologyRepairWeakeningTest extends OntologyRepairTest {
@@ -13,4 +21,37 @@ public class OntologyRepairWeakeningTest extends OntologyRepairTest {
     protected OntologyRepair getRepairForCoherence() {
         return OntologyRepairWeakening.forCoherence();
     }
+
+    @Test
+    public void multipleUniqueRepairsAreDistinct() {
+        var path = OntologyRepairTest.class.getResource("/inconsistent/leftpolicies-small.owl").getFile();
+        try (var ontology = Ontology.loadOntology(path)) {
+            var repair = new OntologyRepairWeakening(Ontology::isConsistent);
+            repair.setUniqueRepairs(true);
+            var seen = new HashSet<>();
+            try (var repairs = repair.multiple(ontology)) {
+                repairs.limit(3).forEach(repaired -> {
+                    assertTrue(repaired.isConsistent());
+                    assertTrue(seen.add(Utils.toSet(repaired.axioms()
+                            .map(axiom -> axiom.<OWLAxiom>getAxiomWithoutAnnotations()))));
+                    repaired.close();
+                });
+            }
+            assertEquals(3, seen.size());
+        }
+    }
+
+    @Test
+    public void errorInMultipleIsThrownToConsumer() {
+        var path = OntologyRepairTest.class.getResource("/inconsistent/leftpolicies-small.owl").getFile();
+        try (var ontology = Ontology.loadOntology(path)) {
+            var repair = new OntologyRepairWeakening(onto -> {
+                throw new AssertionError("failing predicate");
+            });
+            try (var repairs = repair.multiple(ontology)) {
+                var error = assertThrows(AssertionError.class, () -> repairs.findFirst());
+                assertEquals("failing predicate", error.getMessage());
+            }
+        }
+    }
 }
@@ -0,0 +1,85 @@
+package www.ontologyutils.repair;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.parallel.Isolated;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import www.ontologyutils.toolbox.*;
+
+/**
+ * The reasoner calls are counted globally, so these tests must not run
+ * concurrently with any other tests.
+ */
+@Isolated
+public class RepairBudgetTest {
+    private static final String PATH = RepairBudgetTest.class.getResource("/inconsistent/leftpolicies-small.owl")
+            .getFile();
+    private static final int CALLS = 0;
+    private static final int MILLIS = 1;
+
+    private static OntologyRepairBestOfKWeakening unboundedRepair(String strategy) {
+        switch (strategy) {
+            case "best-of-k":
+                return new OntologyRepairBestOfKWeakening(Ontology::isConsistent, Integer.MAX_VALUE);
+            case "mcts":
+                return new OntologyRepairMctsWeakening(Ontology::isConsistent, Integer.MAX_VALUE);
+            case "beam":
+                return new OntologyRepairBeamWeakening(Ontology::isConsistent, Integer.MAX_VALUE, 4);
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + strategy);
+        }
+    }
+
+    /**
+     * Run a repair that would never finish without a budget.
+     *
+     * @return The number of reasoner calls and milliseconds used by the repair,
+     *         at the indices {@code CALLS} and {@code MILLIS}.
+     */
+    private static long[] runBudgetedRepair(OntologyRepairBestOfKWeakening repair) {
+        try (var ontology = Ontology.loadOntology(PATH)) {
+            Utils.randomSeed(0);
+            assertFalse(ontology.isConsistent());
+            var startTime = System.nanoTime();
+            var startCalls = Ontology.reasonerCalls;
+            repair.apply(ontology);
+            var calls = Ontology.reasonerCalls - startCalls;
+            var millis = (System.nanoTime() - startTime) / 1_000_000;
+            assertTrue(ontology.isConsistent());
+            return new long[] { calls, millis };
+        }
+    }
+
+    /**
+     * Check that a repair with the given budgets uses at most {@code slack} more
+     * of the resource than the same repair with no budget left from the start,
+     * which still has to compute the reference ontology and one repair.
+     */
+    private static void assertBudgetIsRespected(String strategy, long timeBudget, long reasonerCallBudget,
+            int resource, long slack) {
+        var exhausted = unboundedRepair(strategy);
+        exhausted.setTimeBudget(0);
+        var baseline = runBudgetedRepair(exhausted);
+        var repair = unboundedRepair(strategy);
+        repair.setTimeBudget(timeBudget);
+        repair.setReasonerCallBudget(reasonerCallBudget);
+        var used = runBudgetedRepair(repair);
+        var budget = resource == CALLS ? reasonerCallBudget : timeBudget;
+        assertTrue(used[resource] <= baseline[resource] + budget + slack,
+                "used " + used[resource] + " with budget " + budget + " and baseline " + baseline[resource]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "best-of-k", "mcts", "beam" })
+    public void reasonerCallBudgetBoundsReasonerCalls(String strategy) {
+        assertBudgetIsRespected(strategy, Long.MAX_VALUE, 500, CALLS, 100);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "best-of-k", "mcts", "beam" })
+    public void timeBudgetBoundsElapsedTime(String strategy) {
+        assertBudgetIsRespected(strategy, 1_000, Long.MAX_VALUE, MILLIS, 1_000);
+    }
+}
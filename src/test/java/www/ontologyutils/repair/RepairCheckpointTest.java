@@ -0,0 +1,76 @@
+package www.ontologyutils.repair;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.*;
+
+import www.ontologyutils.toolbox.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class RepairCheckpointTest {
+    private static final String PATH = RepairCheckpointTest.class.getResource("/inconsistent/leftpolicies-small.owl")
+            .getFile();
+
+    @Test
+    public void savedStateIsLoaded() throws IOException {
+        var file = File.createTempFile("repair", ".checkpoint");
+        Files.delete(file.toPath());
+        try (var ontology = Ontology.loadOntology(PATH)) {
+            var checkpoint = new RepairCheckpoint(file.toString(), 0);
+            var axioms = Utils.toSet(ontology.refutableAxioms());
+            var state = new RepairCheckpoint.State(axioms, null, axioms, 42.0, 7);
+            checkpoint.save(state);
+            assertEquals(state, new RepairCheckpoint(file.toString(), 0).load());
+            checkpoint.delete();
+            assertNull(checkpoint.load());
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Test
+    public void weakeningRepairResumesFromCheckpoint() throws IOException {
+        var file = File.createTempFile("repair", ".checkpoint");
+        Files.delete(file.toPath());
+        try (var ontology = Ontology.loadOntology(PATH); var resumed = ontology.clone()) {
+            var checkpoint = new RepairCheckpoint(file.toString(), 0);
+            var repair = OntologyRepairWeakening.forConsistency();
+            repair.setCheckpoint(checkpoint);
+            repair.apply(ontology);
+            assertTrue(ontology.isConsistent());
+            var state = checkpoint.load();
+            assertNotNull(state);
+            assertEquals(Utils.toSet(ontology.refutableAxioms()), state.refutableAxioms());
+            // Resuming from the final state of the repair does not perform any further weakening.
+            repair.apply(resumed);
+            assertEquals(Utils.toSet(ontology.axioms()), Utils.toSet(resumed.axioms()));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Test
+    public void bestOfKRepairResumesWithBestResult() throws IOException {
+        var file = File.createTempFile("repair", ".checkpoint");
+        Files.delete(file.toPath());
+        try (var ontology = Ontology.loadOntology(PATH); var repaired = ontology.clone()) {
+            OntologyRepairWeakening.forConsistency().apply(repaired);
+            var checkpoint = new RepairCheckpoint(file.toString(), 0);
+            // The weakening repair makes the reference axioms static, but the best-of-k repair does not.
+            var staticAxioms = Utils.toSet(ontology.staticAxioms());
+            var bestAxioms = Utils.toSet(repaired.axioms().filter(axiom -> !staticAxioms.contains(axiom)));
+            var refAxioms = Utils.toSet(repaired.staticAxioms().filter(axiom -> !staticAxioms.contains(axiom)));
+            checkpoint.save(new RepairCheckpoint.State(refAxioms, null, bestAxioms, Double.POSITIVE_INFINITY, 10));
+            var repair = OntologyRepairBestOfKWeakening.forConsistency(10);
+            repair.setCheckpoint(checkpoint);
+            repair.apply(ontology);
+            assertEquals(Utils.toSet(repaired.axioms()), Utils.toSet(ontology.axioms()));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package www.ontologyutils.repair;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.*;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.*;
+
+import www.ontologyutils.toolbox.CanceledException;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class RepairExecutorTest {
+    @Test
+    public void everyRoundRunsExactlyOnce() {
+        var executor = new RepairExecutor(4);
+        var counts = new AtomicIntegerArray(1_000);
+        executor.runRounds(1_000, i -> counts.incrementAndGet((int) i));
+        for (int i = 0; i < counts.length(); i++) {
+            assertEquals(1, counts.get(i));
+        }
+    }
+
+    @Test
+    public void stopConditionEndsRunningRounds() {
+        var executor = new RepairExecutor(4);
+        var started = new AtomicInteger();
+        var startTime = System.nanoTime();
+        executor.runRounds(Long.MAX_VALUE, () -> System.nanoTime() - startTime > 100_000_000L, i -> {
+            started.incrementAndGet();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                throw new CanceledException();
+            }
+        });
+        assertTrue(System.nanoTime() - startTime < 5_000_000_000L);
+        assertTrue(started.get() <= 4);
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void concurrentAndNestedJobsComplete() {
+        var executor = new RepairExecutor(2);
+        var total = new AtomicLong();
+        IntStream.range(0, 8).parallel().forEach(j -> {
+            executor.runRounds(10, i -> {
+                executor.runRounds(10, k -> total.incrementAndGet());
+            });
+        });
+        assertEquals(800, total.get());
+    }
+}
@@ -0,0 +1,52 @@
+package www.ontologyutils.repair;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.parallel.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import www.ontologyutils.toolbox.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class TaxonomyQualityTest {
+    @ParameterizedTest
+    @ValueSource(strings = { "/inconsistent/leftpolicies-small.owl", "/inconsistent/leftpolicies.owl" })
+    public void qualityOfWeakeningRepairsIsTaxonomySize(String resourceName) {
+        var path = TaxonomyQualityTest.class.getResource(resourceName).getFile();
+        try (var ontology = Ontology.loadOntology(path)) {
+            Utils.randomSeed(0);
+            var refAxioms = ontology.maximalConsistentSubset(Ontology::isConsistent);
+            try (var refOntology = ontology.cloneWithRefutable(refAxioms)) {
+                var quality = new TaxonomyQuality(ontology, refOntology);
+                assertEquals((double) refOntology.inferredTaxonomyAxioms().count(), quality.apply(refOntology));
+                var repair = OntologyRepairWeakening.forConsistency();
+                for (int i = 0; i < 3; i++) {
+                    try (var repaired = repair.modified(ontology)) {
+                        assertEquals((double) repaired.inferredTaxonomyAxioms().count(), quality.apply(repaired));
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/inconsistent/leftpolicies-small.owl", "/inconsistent/leftpolicies.owl" })
+    public void qualityOfRemovalsFromConsistentOntologyIsTaxonomySize(String resourceName) {
+        var path = TaxonomyQualityTest.class.getResource(resourceName).getFile();
+        try (var inconsistent = Ontology.loadOntology(path)) {
+            Utils.randomSeed(0);
+            var refAxioms = inconsistent.maximalConsistentSubset(Ontology::isConsistent);
+            try (var ontology = inconsistent.cloneWithRefutable(refAxioms)) {
+                var quality = new TaxonomyQuality(ontology);
+                var axioms = Utils.toList(ontology.refutableAxioms());
+                for (int i = 0; i < 3; i++) {
+                    try (var removed = ontology.clone()) {
+                        removed.removeAxioms(axioms.subList(0, (i + 1) * axioms.size() / 4));
+                        assertEquals((double) removed.inferredTaxonomyAxioms().count(), quality.apply(removed));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package www.ontologyutils.toolbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.parallel.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.semanticweb.owlapi.model.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class FunctionalSyntaxWriterTest {
+    @ParameterizedTest
+    @ValueSource(strings = { "/alcri/sroiq-tests.owl", "/alcroiq/owl-tests.owl", "/alc/Fish.owl",
+            "/el/bodysystem.owl" })
+    public void writtenOntologyContainsSameAxioms(String resourceName) throws IOException {
+        var path = FunctionalSyntaxWriterTest.class.getResource(resourceName).getFile();
+        var file = File.createTempFile("written", ".owl");
+        try (var ontology = Ontology.loadOnlyLogicalAxioms(path)) {
+            var axioms = Utils.toList(ontology.logicalAxioms()
+                    .map(axiom -> axiom.<OWLAxiom>getAxiomWithoutAnnotations()));
+            try (var writer = new FunctionalSyntaxWriter(file.toString(), null)) {
+                // Write every axiom twice to check that repeated axioms are ignored.
+                writer.writeAxioms(axioms);
+                axioms.parallelStream().forEach(writer::writeAxiom);
+                writer.writeMissingDeclarations();
+            }
+            try (var written = Ontology.loadOntology(file.toString())) {
+                assertEquals(Utils.toSet(axioms.stream()), Utils.toSet(written.logicalAxioms()));
+                var declared = Utils.toSet(written.axioms(AxiomType.DECLARATION)
+                        .map(axiom -> ((OWLDeclarationAxiom) axiom).getEntity()));
+                written.logicalAxioms().flatMap(OWLAxiom::signature)
+                        .filter(entity -> (entity.isOWLClass() || entity.isOWLObjectProperty())
+                                && !entity.isBuiltIn())
+                        .forEach(entity -> assertTrue(declared.contains(entity)));
+            }
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+}
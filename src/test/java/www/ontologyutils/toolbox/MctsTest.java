@@ -0,0 +1,154 @@
+package www.ontologyutils.toolbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.stream.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class MctsTest {
+    /**
+     * Game in which every move appends a bit to a binary number with a fixed
+     * number of digits. The value is the final number.
+     */
+    private static class BitsGame implements Mcts.Game<Integer> {
+        private int digits;
+        private int value;
+
+        public BitsGame(int digits, int value) {
+            this.digits = digits;
+            this.value = value;
+        }
+
+        @Override
+        public Mcts.Game<Integer> copy() {
+            return new BitsGame(digits, value);
+        }
+
+        @Override
+        public Stream<Integer> possibleMoves() {
+            return digits == 0 ? Stream.of() : Stream.of(0, 1);
+        }
+
+        @Override
+        public void performMove(Integer move) {
+            digits -= 1;
+            value = 2 * value + move;
+        }
+
+        @Override
+        public boolean isTerminal() {
+            return digits == 0;
+        }
+
+        @Override
+        public double terminalValue() {
+            return value;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Game in which every move picks one of the remaining items, until a fixed
+     * number of items has been picked. The value is the sum of the picked items,
+     * so the order in which items are picked does not matter.
+     */
+    private static class SubsetGame implements Mcts.Game<Integer> {
+        private int items;
+        private int remaining;
+        private int picked;
+
+        public SubsetGame(int items, int remaining, int picked) {
+            this.items = items;
+            this.remaining = remaining;
+            this.picked = picked;
+        }
+
+        @Override
+        public Mcts.Game<Integer> copy() {
+            return new SubsetGame(items, remaining, picked);
+        }
+
+        @Override
+        public Stream<Integer> possibleMoves() {
+            return IntStream.range(0, remaining == 0 ? 0 : items).filter(i -> (picked & (1 << i)) == 0).boxed();
+        }
+
+        @Override
+        public void performMove(Integer move) {
+            remaining -= 1;
+            picked |= 1 << move;
+        }
+
+        @Override
+        public boolean isTerminal() {
+            return remaining == 0;
+        }
+
+        @Override
+        public double terminalValue() {
+            return IntStream.range(0, items).filter(i -> (picked & (1 << i)) != 0).sum();
+        }
+
+        @Override
+        public Object stateKey() {
+            return picked;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void parallelSimulationsAreAllCounted() {
+        try (var mcts = new Mcts<>(new BitsGame(8, 0), 1.5, 0, Double.NaN, 5, false)) {
+            IntStream.range(0, 5_000).parallel().forEach(i -> mcts.runSimulation());
+            var counts = mcts.getRootCounts();
+            assertEquals(5_000, counts.values().stream().mapToInt(c -> c).sum());
+            assertTrue(counts.get(1) > counts.get(0));
+            var values = mcts.getRootValues();
+            assertTrue(values.get(1) > values.get(0));
+        }
+    }
+
+    @Test
+    public void parallelSimulationsWithRaveFindBestMove() {
+        try (var mcts = new Mcts<>(new BitsGame(6, 0))) {
+            IntStream.range(0, 2_000).parallel().forEach(i -> mcts.runSimulation());
+            var counts = mcts.getRootCounts();
+            assertTrue(counts.values().stream().allMatch(c -> c >= 0));
+            assertTrue(mcts.getRootValues().get(1) > mcts.getRootValues().get(0));
+        }
+    }
+
+    @Test
+    public void equalStatesShareNodes() {
+        try (var mcts = new Mcts<>(new SubsetGame(6, 3, 0), 1.5, 0, Double.NaN, 5, false)) {
+            IntStream.range(0, 2_000).parallel().forEach(i -> mcts.runSimulation());
+            // There are 1 + 6 + 15 + 20 subsets with at most three elements.
+            assertTrue(mcts.transpositionCount() > 0);
+            assertTrue(mcts.transpositionCount() <= 42);
+            var values = mcts.getRootValues();
+            assertTrue(values.get(5) > values.get(0));
+        }
+    }
+
+    @Test
+    public void transposedStatesShareStatistics() {
+        try (var mcts = new Mcts<>(new SubsetGame(6, 3, 0), 1.5, 0, Double.NaN, 5, false)) {
+            IntStream.range(0, 2_000).parallel().forEach(i -> mcts.runSimulation());
+            var visitsOfFirst = mcts.getRootCounts().get(0);
+            mcts.performMove(0);
+            // Every state {0, i} can also be reached by picking i first. Since these visits are
+            // counted for the same node, the children have more visits than their parent.
+            var visitsOfChildren = mcts.getRootCounts().values().stream().mapToInt(c -> c).sum();
+            assertTrue(visitsOfChildren > visitsOfFirst);
+        }
+    }
+}
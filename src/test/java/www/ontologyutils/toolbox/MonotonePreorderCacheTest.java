@@ -0,0 +1,73 @@
+package www.ontologyutils.toolbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class MonotonePreorderCacheTest {
+    private int numCalls;
+
+    private boolean compare(Set<Integer> key, int a, int b) {
+        numCalls += 1;
+        return a <= b || key.contains(a - b);
+    }
+
+    @Test
+    public void getCacheReturnsSameCache() {
+        var caches = new MonotonePreorderCache<Integer, Integer>();
+        var cache = caches.getCache(Set.of(1, 2), PreorderCache::new);
+        assertSame(cache, caches.getCache(Set.of(2, 1), PreorderCache::new));
+        assertNotSame(cache, caches.getCache(Set.of(1), PreorderCache::new));
+        assertEquals(2, caches.size());
+    }
+
+    @Test
+    public void newCacheInheritsFromSubsets() {
+        var caches = new MonotonePreorderCache<Integer, Integer>();
+        var small = caches.getCache(Set.of(1), PreorderCache::new);
+        assertTrue(small.computeIfAbsent(2, 1, (a, b) -> compare(Set.of(1), a, b)));
+        assertTrue(small.computeIfAbsent(3, 2, (a, b) -> compare(Set.of(1), a, b)));
+        assertEquals(2, numCalls);
+        var large = caches.getCache(Set.of(1, 5), PreorderCache::new);
+        assertTrue(large.isKnownSuccessor(2, 1));
+        assertTrue(large.isKnownSuccessor(3, 2));
+        assertTrue(large.isKnownSuccessor(3, 1));
+        var other = caches.getCache(Set.of(5), PreorderCache::new);
+        assertFalse(other.isKnownSuccessor(2, 1));
+    }
+
+    @Test
+    public void wrappedPreorderUsesSubsetsAndSupersets() {
+        var caches = new MonotonePreorderCache<Integer, Integer>();
+        var small = caches.getCache(Set.of(1), PreorderCache::new);
+        var large = caches.getCache(Set.of(1, 2, 3), PreorderCache::new);
+        assertTrue(small.computeIfAbsent(5, 4, (a, b) -> compare(Set.of(1), a, b)));
+        assertFalse(large.computeIfAbsent(9, 4, (a, b) -> compare(Set.of(1, 2, 3), a, b)));
+        assertEquals(2, numCalls);
+        var key = Set.of(1, 2);
+        var wrapped = caches.wrapPreorder(key, (a, b) -> compare(key, a, b));
+        assertTrue(wrapped.test(5, 4));
+        assertFalse(wrapped.test(9, 4));
+        assertEquals(2, numCalls);
+        assertTrue(wrapped.test(6, 4));
+        assertEquals(3, numCalls);
+    }
+
+    @Test
+    public void wrappedPreorderSeesNewCaches() {
+        var caches = new MonotonePreorderCache<Integer, Integer>();
+        var key = Set.of(1, 2);
+        var wrapped = caches.wrapPreorder(key, (a, b) -> compare(key, a, b));
+        assertTrue(wrapped.test(3, 2));
+        assertEquals(1, numCalls);
+        var small = caches.getCache(Set.of(2), PreorderCache::new);
+        assertTrue(small.computeIfAbsent(4, 2, (a, b) -> compare(Set.of(2), a, b)));
+        assertEquals(2, numCalls);
+        assertTrue(wrapped.test(4, 2));
+        assertEquals(2, numCalls);
+    }
+}
@@ -8,6 +8,10 @@ import org.semanticweb.owlapi.model.*;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.parallel.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import uk.ac.manchester.cs.jfact.JFactFactory;
 
 @Execution(ExecutionMode.CONCURRENT)
 public class OntologyTest {
@@ -43,4 +47,128 @@ public class OntologyTest {
             assertEquals(7, infSize);
         }
     }
+
+    @Test
+    public void inferredTaxonomyAxiomsWithJFact() {
+        var df = Ontology.getDefaultDataFactory();
+        var axioms = Set.<OWLAxiom>of(df.getOWLSubClassOfAxiom(concepts.get(0), concepts.get(1)),
+                df.getOWLSubClassOfAxiom(concepts.get(1), concepts.get(2)));
+        try (var ontology = Ontology.withAxioms(axioms, new JFactFactory())) {
+            assertEquals(6, ontology.inferredTaxonomyAxioms().count());
+        }
+    }
+
+    @Test
+    public void indexIsUpdatedOnChanges() {
+        var df = Ontology.getDefaultDataFactory();
+        var role = df.getOWLObjectProperty("www.first.org#", "r");
+        var some = df.getOWLObjectSomeValuesFrom(role, concepts.get(2));
+        var ax1 = df.getOWLSubClassOfAxiom(concepts.get(0), some);
+        var ax2 = df.getOWLSubClassOfAxiom(concepts.get(1), concepts.get(2));
+        try (var ontology = Ontology.withAxioms(Set.of(ax1))) {
+            assertEquals(Set.of(concepts.get(0), concepts.get(2), some, df.getOWLThing(), df.getOWLNothing()),
+                    Utils.toSet(ontology.subConcepts()));
+            assertEquals(Set.of(role), Utils.toSet(ontology.rolesInSignature()));
+            ontology.addStaticAxioms(ax2);
+            assertEquals(Set.of(concepts.get(0), concepts.get(1), concepts.get(2)),
+                    Utils.toSet(ontology.conceptsInSignature()));
+            ontology.replaceAxiom(ax1, df.getOWLSubClassOfAxiom(concepts.get(0), concepts.get(2)));
+            assertEquals(Set.of(concepts.get(0), concepts.get(1), concepts.get(2), df.getOWLThing(),
+                    df.getOWLNothing()), Utils.toSet(ontology.subConcepts()));
+            assertEquals(Set.of(), Utils.toSet(ontology.rolesInSignature()));
+            ontology.removeAxioms(ax2);
+            assertEquals(Set.of(concepts.get(0), concepts.get(2)), Utils.toSet(ontology.signature()));
+            ontology.setRefutableAxioms(Set.of(ax1));
+            assertEquals(Utils.toSet(ontology.axioms().flatMap(OWLAxiom::signature)),
+                    Utils.toSet(ontology.signature()));
+            assertEquals(Utils.toSet(ontology.tboxAxioms().flatMap(OWLAxiom::nestedClassExpressions)),
+                    Utils.toSet(ontology.subConceptsOfTbox().filter(c -> !c.isOWLThing() && !c.isOWLNothing())));
+        }
+    }
+
+    @Test
+    public void replaceAxiomsKeepsStaticAxiomsStatic() {
+        var df = Ontology.getDefaultDataFactory();
+        var ax1 = df.getOWLSubClassOfAxiom(concepts.get(0), concepts.get(1));
+        var ax2 = df.getOWLSubClassOfAxiom(concepts.get(1), concepts.get(2));
+        var ax3 = df.getOWLSubClassOfAxiom(concepts.get(2), concepts.get(3));
+        var ax4 = df.getOWLSubClassOfAxiom(concepts.get(0), concepts.get(3));
+        try (var ontology = Ontology.withAxioms(Set.of(ax1), Set.of(ax2, ax3))) {
+            ontology.replaceAxioms(Map.of(ax1, List.of(ax4), ax2, List.of(ax2), ax3, List.of()));
+            assertEquals(Set.of(ax4), Utils.toSet(ontology.staticAxioms()));
+            assertEquals(Set.of(ax2), Utils.toSet(ontology.refutableAxioms()));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/alcri/sroiq-tests.owl", "/alch/catsandnumbers.owl", "/alcri/shapes.owl",
+            "/alc/Fish.owl" })
+    public void classifiedTaxonomyMatchesPairwiseSubsumption(String resourceName) {
+        var path = OntologyTest.class.getResource(resourceName).getFile();
+        try (var ontology = Ontology.loadOntology(path)) {
+            assertClassifiedTaxonomyMatchesPairwiseSubsumption(ontology);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/alcri/sroiq-tests.owl", "/alch/catsandnumbers.owl", "/alcri/shapes.owl",
+            "/alc/Fish.owl" })
+    public void classifiedTaxonomyMatchesPairwiseSubsumptionWithJFact(String resourceName) {
+        var path = OntologyTest.class.getResource(resourceName).getFile();
+        try (var loaded = Ontology.loadOntology(path); var ontology = loaded.cloneWithJFact()) {
+            assertClassifiedTaxonomyMatchesPairwiseSubsumption(ontology);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/alcri/sroiq-tests.owl", "/alch/catsandnumbers.owl", "/alc/Fish.owl" })
+    public void reclassifiedTaxonomyOfModifiedCloneIsCorrectWithJFact(String resourceName) {
+        var path = OntologyTest.class.getResource(resourceName).getFile();
+        try (var loaded = Ontology.loadOntology(path); var ontology = loaded.cloneWithJFact()) {
+            var taxonomy = Utils.toSet(ontology.inferredTaxonomyAxioms());
+            try (var weaker = ontology.clone()) {
+                var axioms = Utils.toList(weaker.logicalAxioms());
+                weaker.removeAxioms(axioms.subList(0, axioms.size() / 2));
+                var weakerTaxonomy = Utils.toSet(weaker.inferredTaxonomyAxioms());
+                try (var separate = weaker.cloneWithSeparateCache()) {
+                    assertEquals(Utils.toSet(separate.inferredTaxonomyAxioms()), weakerTaxonomy);
+                }
+            }
+            assertEquals(taxonomy, Utils.toSet(ontology.inferredTaxonomyAxioms()));
+        }
+    }
+
+    private static void assertClassifiedTaxonomyMatchesPairwiseSubsumption(Ontology ontology) {
+        var df = Ontology.getDefaultDataFactory();
+        var domain = Utils.<OWLClassExpression>toSet(ontology.conceptsInSignature());
+        domain.add(df.getOWLThing());
+        domain.add(df.getOWLNothing());
+        domain.add(df.getOWLClass("www.fresh.org#", "A"));
+        var expected = new HashSet<OWLSubClassOfAxiom>();
+        for (var subClass : domain) {
+            for (var superClass : domain) {
+                if (ontology.isSubClass(subClass, superClass)) {
+                    expected.add(df.getOWLSubClassOfAxiom(subClass, superClass));
+                }
+            }
+        }
+        assertEquals(expected, Utils.toSet(ontology.inferredSubClassAxiomsOver(domain)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/alcri/sroiq-tests.owl", "/alch/catsandnumbers.owl", "/alc/Fish.owl" })
+    public void iicMatchesRelativeInformationContentOfTaxonomies(String resourceName) {
+        var path = OntologyTest.class.getResource(resourceName).getFile();
+        try (var ontology = Ontology.loadOntology(path); var weaker = ontology.clone()) {
+            var axioms = Utils.toList(ontology.logicalAxioms());
+            weaker.removeAxioms(axioms.subList(0, axioms.size() / 2));
+            var taxonomy = Utils.toSet(ontology.inferredTaxonomyAxioms());
+            var weakerTaxonomy = Utils.toSet(weaker.inferredTaxonomyAxioms());
+            assertEquals(Ontology.relativeInformationContent(taxonomy, weakerTaxonomy),
+                    ontology.iicWithRespectTo(weaker));
+            assertEquals(Ontology.relativeInformationContent(weakerTaxonomy, taxonomy),
+                    weaker.iicWithRespectTo(ontology));
+            assertEquals(0.5, ontology.iicWithRespectTo(ontology));
+        }
+    }
 }
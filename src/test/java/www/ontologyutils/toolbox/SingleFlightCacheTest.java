@@ -0,0 +1,101 @@
+package www.ontologyutils.toolbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class SingleFlightCacheTest {
+    @Test
+    public void removeLastAccessedEntry() {
+        var cache = new SingleFlightCache<Integer, Integer>(3);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.get(1);
+        cache.get(2);
+        cache.put(4, 4);
+        assertEquals(3, cache.size());
+        assertNull(cache.get(3));
+        assertEquals(1, cache.get(1));
+        assertEquals(4, cache.get(4));
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        var cache = new SingleFlightCache<Integer, Integer>(Integer.MAX_VALUE);
+        assertEquals(4, cache.computeIfAbsent(2, x -> x * x));
+        assertEquals(4, cache.computeIfAbsent(2, x -> 0));
+        assertEquals(9, cache.computeIfAbsent(3, x -> x * x));
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(0, cache.waits());
+    }
+
+    @Test
+    public void concurrentMissesComputeOnce() throws Exception {
+        var calls = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var cache = new SingleFlightCache<Integer, Integer>(Integer.MAX_VALUE);
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var first = executor.submit(() -> cache.computeIfAbsent(1, x -> {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new CanceledException();
+                }
+                return 42;
+            }));
+            started.await();
+            var others = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 3; i++) {
+                others.add(executor.submit(() -> cache.computeIfAbsent(1, x -> {
+                    calls.incrementAndGet();
+                    return 0;
+                })));
+            }
+            while (cache.waits() < 3) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            assertEquals(42, first.get());
+            for (var other : others) {
+                assertEquals(42, other.get());
+            }
+            assertEquals(1, calls.get());
+            assertEquals(1, cache.misses());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedComputationIsRetried() {
+        var cache = new SingleFlightCache<Integer, Integer>(Integer.MAX_VALUE);
+        assertThrows(IllegalStateException.class, () -> cache.computeIfAbsent(1, x -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(1, cache.computeIfAbsent(1, x -> x));
+    }
+
+    @Test
+    public void wrapStreamFunction() {
+        var calls = new AtomicInteger();
+        var wrapped = SingleFlightCache.wrapStreamFunction((Integer x) -> {
+            calls.incrementAndGet();
+            return List.of(x, x + 1).stream();
+        });
+        assertEquals(List.of(1, 2), Utils.toList(wrapped.apply(1)));
+        assertEquals(List.of(1, 2), Utils.toList(wrapped.apply(1)));
+        assertEquals(1, calls.get());
+    }
+}
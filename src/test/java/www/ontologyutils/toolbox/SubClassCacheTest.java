@@ -0,0 +1,76 @@
+package www.ontologyutils.toolbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class SubClassCacheTest {
+    private static final OWLDataFactory df = OWLManager.getOWLDataFactory();
+    private static final OWLClass a = df.getOWLClass(IRI.create("http://www.example.org/A"));
+    private static final OWLClass b = df.getOWLClass(IRI.create("http://www.example.org/B"));
+    private static final OWLObjectProperty r = df.getOWLObjectProperty(IRI.create("http://www.example.org/r"));
+    private static final OWLObjectProperty s = df.getOWLObjectProperty(IRI.create("http://www.example.org/s"));
+
+    private int numCalls;
+
+    private boolean unexpected(OWLClassExpression sub, OWLClassExpression sup) {
+        numCalls += 1;
+        return false;
+    }
+
+    private SubClassCache cacheWithASubB(PreorderCache<OWLObjectPropertyExpression> roles) {
+        var cache = new SubClassCache(List.of(a, b), roles);
+        cache.assertSuccessor(a, b);
+        cache.denySuccessor(b, a);
+        return cache;
+    }
+
+    @Test
+    public void existentialMonotoneInFiller() {
+        var cache = cacheWithASubB(null);
+        assertTrue(cache.computeIfAbsent(df.getOWLObjectSomeValuesFrom(r, a),
+                df.getOWLObjectSomeValuesFrom(r, b), this::unexpected));
+        assertTrue(cache.computeIfAbsent(df.getOWLObjectMinCardinality(3, r, a),
+                df.getOWLObjectSomeValuesFrom(r, b), this::unexpected));
+        assertTrue(cache.computeIfAbsent(df.getOWLObjectExactCardinality(2, r, a),
+                df.getOWLObjectMinCardinality(2, r, b), this::unexpected));
+        assertEquals(0, numCalls);
+        assertFalse(cache.computeIfAbsent(df.getOWLObjectMinCardinality(1, r, a),
+                df.getOWLObjectMinCardinality(2, r, b), this::unexpected));
+        assertEquals(1, numCalls);
+    }
+
+    @Test
+    public void restrictionsUseRoleHierarchy() {
+        var roles = new PreorderCache<OWLObjectPropertyExpression>();
+        roles.assertSuccessor(r, s);
+        var cache = cacheWithASubB(roles);
+        assertTrue(cache.computeIfAbsent(df.getOWLObjectSomeValuesFrom(r, a),
+                df.getOWLObjectSomeValuesFrom(s, b), this::unexpected));
+        assertTrue(cache.computeIfAbsent(df.getOWLObjectAllValuesFrom(s, a),
+                df.getOWLObjectAllValuesFrom(r, b), this::unexpected));
+        assertTrue(cache.computeIfAbsent(df.getOWLObjectMaxCardinality(1, s, b),
+                df.getOWLObjectMaxCardinality(2, r, a), this::unexpected));
+        assertEquals(0, numCalls);
+        assertFalse(cache.computeIfAbsent(df.getOWLObjectAllValuesFrom(r, a),
+                df.getOWLObjectAllValuesFrom(s, b), this::unexpected));
+        assertEquals(1, numCalls);
+    }
+
+    @Test
+    public void complementDuality() {
+        var cache = cacheWithASubB(null);
+        assertTrue(cache.computeIfAbsent(df.getOWLObjectComplementOf(b),
+                df.getOWLObjectComplementOf(a), this::unexpected));
+        assertFalse(cache.computeIfAbsent(df.getOWLObjectComplementOf(a),
+                df.getOWLObjectComplementOf(b), (sub, sup) -> true));
+        assertEquals(0, numCalls);
+    }
+}
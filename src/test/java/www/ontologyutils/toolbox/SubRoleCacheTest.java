@@ -0,0 +1,69 @@
+package www.ontologyutils.toolbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class SubRoleCacheTest {
+    private static final OWLDataFactory df = OWLManager.getOWLDataFactory();
+    private static final OWLObjectProperty r = df.getOWLObjectProperty(IRI.create("http://www.example.org/r"));
+    private static final OWLObjectProperty s = df.getOWLObjectProperty(IRI.create("http://www.example.org/s"));
+    private static final OWLObjectProperty t = df.getOWLObjectProperty(IRI.create("http://www.example.org/t"));
+    private static final OWLObjectProperty u = df.getOWLObjectProperty(IRI.create("http://www.example.org/u"));
+    private static final List<OWLObjectPropertyExpression> roles = List.of(r, s, t, u, r.getInverseProperty(),
+            s.getInverseProperty(), t.getInverseProperty(), u.getInverseProperty());
+
+    private int numCalls;
+
+    private boolean unexpected(OWLObjectPropertyExpression sub, OWLObjectPropertyExpression sup) {
+        numCalls += 1;
+        return false;
+    }
+
+    @Test
+    public void toldHierarchyIsKnown() {
+        var cache = new SubRoleCache(roles, Stream.of(
+                df.getOWLSubObjectPropertyOfAxiom(r, s),
+                df.getOWLEquivalentObjectPropertiesAxiom(s, t),
+                df.getOWLInverseObjectPropertiesAxiom(t, u)));
+        assertTrue(cache.computeIfAbsent(r, s, this::unexpected));
+        assertTrue(cache.computeIfAbsent(r, t, this::unexpected));
+        assertTrue(cache.computeIfAbsent(t, s, this::unexpected));
+        assertTrue(cache.computeIfAbsent(r, u.getInverseProperty(), this::unexpected));
+        assertTrue(cache.computeIfAbsent(r.getInverseProperty(), u, this::unexpected));
+        assertTrue(cache.computeIfAbsent(u, t.getInverseProperty(), this::unexpected));
+        assertEquals(0, numCalls);
+        assertFalse(cache.computeIfAbsent(s, r, this::unexpected));
+        assertEquals(1, numCalls);
+    }
+
+    @Test
+    public void symmetricRoleIsOwnInverse() {
+        var cache = new SubRoleCache(roles, Stream.of(df.getOWLSymmetricObjectPropertyAxiom(r)));
+        assertTrue(cache.computeIfAbsent(r, r.getInverseProperty(), this::unexpected));
+        assertTrue(cache.computeIfAbsent(r.getInverseProperty(), r, this::unexpected));
+        assertEquals(0, numCalls);
+    }
+
+    @Test
+    public void computedFactsAreMirrored() {
+        var cache = new SubRoleCache(roles);
+        assertTrue(cache.computeIfAbsent(r, s, (a, b) -> {
+            numCalls += 1;
+            return true;
+        }));
+        assertFalse(cache.computeIfAbsent(s, t, this::unexpected));
+        assertEquals(2, numCalls);
+        assertTrue(cache.computeIfAbsent(r.getInverseProperty(), s.getInverseProperty(), this::unexpected));
+        assertFalse(cache.computeIfAbsent(s.getInverseProperty(), t.getInverseProperty(), this::unexpected));
+        assertEquals(2, numCalls);
+    }
+}
@@ -0,0 +1,92 @@
+package www.ontologyutils.toolbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class TaxonomyTest {
+    private int numCalls;
+
+    private boolean divides(int a, int b) {
+        numCalls += 1;
+        return b % a == 0;
+    }
+
+    private boolean divisibleBy(int a, int b) {
+        numCalls += 1;
+        return a % b == 0;
+    }
+
+    private Set<Integer> bruteForceParents(List<Integer> domain, int elem) {
+        return Utils.toSet(domain.stream()
+                .filter(p -> elem % p == 0 && p != elem)
+                .filter(p -> domain.stream().noneMatch(q -> q != p && q != elem && elem % q == 0 && q % p == 0)));
+    }
+
+    @Test
+    public void directPredecessorsOfDivisibility() {
+        var domain = Utils.toList(IntStream.range(1, 64).mapToObj(i -> i));
+        var taxonomy = new Taxonomy<Integer>(Utils.randomOrder(domain), this::divisibleBy);
+        for (var elem : domain) {
+            assertEquals(bruteForceParents(domain, elem), Utils.toSet(taxonomy.directPredecessors(elem)));
+            assertEquals(Set.of(elem), Utils.toSet(taxonomy.equivalents(elem)));
+        }
+    }
+
+    @Test
+    public void directSuccessorsOfDivisibility() {
+        var domain = Utils.toList(IntStream.range(1, 64).mapToObj(i -> i));
+        var taxonomy = new Taxonomy<Integer>(Utils.randomOrder(domain), this::divides);
+        for (var elem : domain) {
+            assertEquals(bruteForceParents(domain, elem), Utils.toSet(taxonomy.directSuccessors(elem)));
+        }
+    }
+
+    @Test
+    public void allPredecessorsAndSuccessors() {
+        var domain = Utils.toList(IntStream.range(1, 64).mapToObj(i -> i));
+        var taxonomy = new Taxonomy<Integer>(domain, this::divisibleBy);
+        for (var elem : domain) {
+            assertEquals(Utils.toSet(domain.stream().filter(p -> elem % p == 0)),
+                    Utils.toSet(taxonomy.predecessors(elem)));
+            assertEquals(Utils.toSet(domain.stream().filter(s -> s % elem == 0)),
+                    Utils.toSet(taxonomy.successors(elem)));
+        }
+    }
+
+    @Test
+    public void equivalentElementsShareNode() {
+        var domain = Utils.toList(IntStream.range(0, 20).mapToObj(i -> i));
+        var taxonomy = new Taxonomy<Integer>(domain, (a, b) -> a / 5 <= b / 5);
+        assertEquals(Set.of(5, 6, 7, 8, 9), Utils.toSet(taxonomy.equivalents(7)));
+        assertEquals(Set.of(10, 11, 12, 13, 14), Utils.toSet(taxonomy.directPredecessors(7)));
+        assertEquals(Set.of(0, 1, 2, 3, 4), Utils.toSet(taxonomy.directSuccessors(7)));
+        assertEquals(Set.of(), Utils.toSet(taxonomy.directPredecessors(17)));
+        assertEquals(Set.of(), Utils.toSet(taxonomy.directSuccessors(2)));
+    }
+
+    private static boolean isHeapAncestor(int a, int b) {
+        while (a > b) {
+            a /= 2;
+        }
+        return a == b;
+    }
+
+    @Test
+    public void usesFewerTestsThanAllPairs() {
+        var domain = Utils.toList(IntStream.range(1, 256).mapToObj(i -> i));
+        var taxonomy = new Taxonomy<Integer>(Utils.randomOrder(domain), (a, b) -> {
+            numCalls += 1;
+            return isHeapAncestor(a, b);
+        });
+        for (var elem : domain) {
+            assertEquals(elem == 1 ? Set.of() : Set.of(elem / 2), Utils.toSet(taxonomy.directPredecessors(elem)));
+        }
+        assertTrue(numCalls < domain.size() * domain.size() / 4);
+    }
+}
@@ -0,0 +1,63 @@
+package www.ontologyutils.toolbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.*;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class WeightedCacheTest {
+    @Test
+    public void keepsEntriesWithinBudget() {
+        var cache = new WeightedCache<Integer, List<Integer>>(100, list -> list.size());
+        for (int i = 0; i < 1000; i++) {
+            var n = i;
+            cache.computeIfAbsent(i, k -> List.of(n, n, n, n, n));
+            assertTrue(cache.weight() <= 100);
+        }
+        assertTrue(cache.size() > 0);
+    }
+
+    @Test
+    public void doesNotStoreOversizedEntries() {
+        var cache = new WeightedCache<Integer, List<Integer>>(2, list -> list.size());
+        assertEquals(List.of(1, 2, 3), cache.computeIfAbsent(1, k -> List.of(1, 2, 3)));
+        assertEquals(0, cache.size());
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    public void frequentEntriesSurviveScans() {
+        var cache = new WeightedCache<Integer, Integer>(100, value -> 1);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.computeIfAbsent(i, k -> k);
+            }
+        }
+        for (int i = 1000; i < 10000; i++) {
+            cache.computeIfAbsent(i, k -> k);
+        }
+        var hits = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                hits += 1;
+            }
+        }
+        assertTrue(hits >= 40);
+    }
+
+    @Test
+    public void wrapWeightedStreamFunction() {
+        var calls = new AtomicInteger();
+        var wrapped = WeightedCache.wrapWeightedStreamFunction((Integer x) -> {
+            calls.incrementAndGet();
+            return List.of(x, x + 1).stream();
+        }, 100);
+        assertEquals(List.of(1, 2), Utils.toList(wrapped.apply(1)));
+        assertEquals(List.of(1, 2), Utils.toList(wrapped.apply(1)));
+        assertEquals(1, calls.get());
+    }
+}